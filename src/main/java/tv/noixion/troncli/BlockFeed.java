@@ -0,0 +1,136 @@
+package tv.noixion.troncli;
+
+import tv.noixion.troncli.exceptions.GRPCException;
+import tv.noixion.troncli.utils.TronEventHandler;
+
+/**
+ * Feed of the blocks of a client, shared by any number of subscribers.
+ * Each block and the information of its transactions are fetched once, then sent to all the subscribers.
+ * Each subscriber has its own thread and a bounded buffer of blocks, so a slow subscriber does not delay
+ * the others until its buffer is full.
+ * The feed starts when the first handler subscribes and stops when the last one unsubscribes.
+ */
+public class BlockFeed {
+    private final TronClient client;
+    private TronBlockChainWatcher watcher;
+    private int bufferSize;
+
+    BlockFeed(TronClient client) {
+        this.client = client;
+        this.watcher = null;
+        this.bufferSize = TronBlockChainWatcher.DEFAULT_QUEUE_CAPACITY;
+    }
+
+    /**
+     * Sets the number of blocks buffered for each subscriber. It is applied when the feed starts.
+     *
+     * @param bufferSize The number of blocks.
+     */
+    public synchronized void setBufferSize(int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The buffer size must be at least 1.");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Subscribes an event handler, receiving the blocks from the last block of the chain,
+     * or from the current position of the feed if it is already running.
+     *
+     * @param handler The event handler.
+     * @return The subscription.
+     * @throws GRPCException If an error occurs in the GRPC protocol, generally connection problems.
+     */
+    public Subscription subscribe(TronEventHandler handler) throws GRPCException {
+        return subscribe(handler, -1);
+    }
+
+    /**
+     * Subscribes an event handler, receiving the blocks from the given one.
+     * If the feed is already running, the block must not be before its current position.
+     *
+     * @param handler   The event handler.
+     * @param fromBlock The first block sent to the handler, -1 for the current position of the feed.
+     * @return The subscription.
+     * @throws GRPCException If an error occurs in the GRPC protocol, generally connection problems.
+     */
+    public synchronized Subscription subscribe(TronEventHandler handler, long fromBlock) throws GRPCException {
+        if (watcher == null) {
+            long start = fromBlock >= 0 ? fromBlock : client.getLastBlock().getNumber();
+            watcher = new TronBlockChainWatcher(client, start);
+            watcher.setName("tron-block-feed");
+            watcher.setDaemon(true);
+            watcher.setQueueCapacity(bufferSize);
+            watcher.addHandler(handler, start);
+            watcher.startWatching();
+        } else {
+            watcher.addHandler(handler, fromBlock);
+        }
+        return new Subscription(watcher, handler);
+    }
+
+    /**
+     * @return The number of subscribers.
+     */
+    public synchronized int getSubscriberCount() {
+        return watcher == null ? 0 : watcher.getHandlerCount();
+    }
+
+    /**
+     * Stops the feed and removes all the subscribers.
+     */
+    public synchronized void close() {
+        if (watcher != null) {
+            watcher.stopWatching();
+            watcher = null;
+        }
+    }
+
+    private synchronized void unsubscribe(TronBlockChainWatcher feedWatcher, TronEventHandler handler) {
+        feedWatcher.removeHandler(handler);
+        if (watcher == feedWatcher && watcher.getHandlerCount() == 0) {
+            close();
+        }
+    }
+
+    /**
+     * Subscription of an event handler to a block feed.
+     */
+    public class Subscription {
+        private final TronBlockChainWatcher feedWatcher;
+        private final TronEventHandler handler;
+
+        private Subscription(TronBlockChainWatcher feedWatcher, TronEventHandler handler) {
+            this.feedWatcher = feedWatcher;
+            this.handler = handler;
+        }
+
+        /**
+         * @return The event handler.
+         */
+        public TronEventHandler getHandler() {
+            return handler;
+        }
+
+        /**
+         * @return The number of the last block handled by the subscriber, or -1 if it is unsubscribed.
+         */
+        public long getCursor() {
+            return feedWatcher.getHandled(handler);
+        }
+
+        /**
+         * @return The number of blocks waiting in the buffer of the subscriber.
+         */
+        public int getPending() {
+            return feedWatcher.getPending(handler);
+        }
+
+        /**
+         * Unsubscribes the event handler.
+         */
+        public void close() {
+            unsubscribe(feedWatcher, handler);
+        }
+    }
+}
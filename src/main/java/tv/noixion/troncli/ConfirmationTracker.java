@@ -0,0 +1,291 @@
+package tv.noixion.troncli;
+
+import tv.noixion.troncli.exceptions.ConfirmationTimeoutException;
+import tv.noixion.troncli.exceptions.GRPCException;
+import tv.noixion.troncli.models.HashIdentifier;
+import tv.noixion.troncli.models.TronBlock;
+import tv.noixion.troncli.models.TronTransaction;
+import tv.noixion.troncli.models.TronTransactionInformation;
+import tv.noixion.troncli.utils.TronEventHandler;
+import tv.noixion.troncli.utils.TronEventInterest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tracks the confirmation of many transactions at the same time.
+ * It follows the blocks of the block feed of the client once for all the transactions, matches their
+ * identifiers with the transactions of each block, and completes a future for each transaction when
+ * it is deep enough in the chain. Only the confirmed transactions are looked up.
+ */
+public class ConfirmationTracker implements TronEventHandler {
+    /**
+     * Depth waiting until the block of the transaction is solidified.
+     */
+    public static final int SOLIDIFIED = -1;
+
+    /**
+     * Number of blocks after which a block is solidified (confirmed by 2/3 of the 27 super representatives).
+     */
+    public static final int SOLIDIFICATION_DEPTH = 19;
+
+    public static final long DEFAULT_TIMEOUT_BLOCKS = 100;
+
+    private final TronClient client;
+    private final Map<String, Pending> tracked;
+    private final Map<String, Pending> pending;
+    private final PriorityQueue<Pending> included;
+    private final List<Pending> retries;
+    private long timeoutBlocks;
+    private long head;
+    private BlockFeed.Subscription subscription;
+
+    /**
+     * Creates a new tracker. It must be started to follow the blocks.
+     *
+     * @param client The client.
+     */
+    public ConfirmationTracker(TronClient client) {
+        this.client = client;
+        this.tracked = new HashMap<>();
+        this.pending = new HashMap<>();
+        this.included = new PriorityQueue<>(Comparator.comparingLong((Pending p) -> p.target));
+        this.retries = new ArrayList<>();
+        this.timeoutBlocks = DEFAULT_TIMEOUT_BLOCKS;
+        this.head = -1;
+        this.subscription = null;
+    }
+
+    /**
+     * Sets the number of blocks after which a transaction that is not in a block, or whose information
+     * cannot be found once it is deep enough, fails with a ConfirmationTimeoutException.
+     *
+     * @param timeoutBlocks The number of blocks.
+     */
+    public synchronized void setTimeoutBlocks(long timeoutBlocks) {
+        if (timeoutBlocks < 1) {
+            throw new IllegalArgumentException("The timeout must be at least 1 block.");
+        }
+        this.timeoutBlocks = timeoutBlocks;
+    }
+
+    /**
+     * Starts following the blocks.
+     *
+     * @throws GRPCException If an error occurs in the GRPC protocol, generally connection problems.
+     */
+    public synchronized void start() throws GRPCException {
+        if (subscription == null) {
+            subscription = client.getBlockFeed().subscribe(this);
+        }
+    }
+
+    /**
+     * Stops following the blocks. The transactions stay tracked until the tracker is started again.
+     */
+    public synchronized void stop() {
+        if (subscription != null) {
+            subscription.close();
+            subscription = null;
+        }
+    }
+
+    /**
+     * Tracks a transaction until it is in a block.
+     *
+     * @param txId The transaction identifier.
+     * @return A future completed with the transaction information.
+     */
+    public CompletableFuture<TronTransactionInformation> track(HashIdentifier txId) {
+        return track(txId, 0);
+    }
+
+    /**
+     * Tracks a transaction until it is deep enough in the chain.
+     * If the transaction is already tracked, the future of the first call is returned (with its depth).
+     *
+     * @param txId  The transaction identifier.
+     * @param depth The number of blocks required after the block of the transaction, or {@link #SOLIDIFIED}.
+     * @return A future completed with the transaction information, or failed with a ConfirmationTimeoutException
+     * if the transaction is not in a block before the timeout.
+     */
+    public CompletableFuture<TronTransactionInformation> track(HashIdentifier txId, int depth) {
+        if (depth < 0 && depth != SOLIDIFIED) {
+            throw new IllegalArgumentException("Invalid depth.");
+        }
+        if (depth == SOLIDIFIED) {
+            // The blocks served when every node reads from a solidity node are already solidified
+            depth = client.hasSolidityNode() ? 0 : SOLIDIFICATION_DEPTH;
+        }
+        String key = txId.toHex();
+        Pending p;
+        synchronized (this) {
+            Pending existing = tracked.get(key);
+            if (existing != null) {
+                return existing.future;
+            }
+            p = new Pending(txId, key, depth);
+            p.deadline = head < 0 ? -1 : head + timeoutBlocks;
+            tracked.put(key, p);
+            pending.put(key, p);
+        }
+        p.future.whenComplete((info, ex) -> {
+            synchronized (this) {
+                tracked.remove(key, p);
+            }
+        });
+        // The transaction may be in a block the feed has already handled
+        lookUp(p, false);
+        return p.future;
+    }
+
+    /**
+     * @return The number of transactions tracked.
+     */
+    public synchronized int getPendingCount() {
+        return tracked.size();
+    }
+
+    @Override
+    public TronEventInterest getInterest() {
+        // The identifiers are matched here, without looking up the information of all the transactions
+        return TronEventInterest.NONE;
+    }
+
+    @Override
+    public void handleBlock(TronClient client, TronBlock block) {
+        List<Pending> expired = new ArrayList<>();
+        List<Pending> retried = new ArrayList<>();
+        synchronized (this) {
+            head = Math.max(head, block.getNumber());
+            if (!pending.isEmpty()) {
+                for (TronTransaction tx : block.getTransactions()) {
+                    Pending p = pending.remove(tx.getId().toHex());
+                    if (p != null) {
+                        include(p, block.getNumber());
+                    }
+                }
+                Iterator<Pending> it = pending.values().iterator();
+                while (it.hasNext()) {
+                    Pending p = it.next();
+                    if (p.deadline < 0) {
+                        p.deadline = head + timeoutBlocks;
+                    } else if (p.deadline <= head) {
+                        it.remove();
+                        expired.add(p);
+                    }
+                }
+            }
+            for (Pending p : retries) {
+                if (pending.get(p.key) == p) {
+                    retried.add(p);
+                }
+            }
+            retries.clear();
+        }
+        for (Pending p : retried) {
+            lookUp(p, false);
+        }
+        for (Pending p : expired) {
+            lookUp(p, true);
+        }
+        confirm();
+    }
+
+    @Override
+    public void handleTransaction(TronClient client, TronTransaction tx, TronTransactionInformation info) {
+    }
+
+    /**
+     * Looks up a transaction not found in the blocks of the feed, which may be in a block handled before
+     * it was tracked. A failed lookup is retried with the next block.
+     *
+     * @param last true for the last lookup of a transaction at its deadline, failing it if it is not in a block.
+     */
+    private void lookUp(Pending p, boolean last) {
+        client.async().getTransactionInformation(p.txId).whenComplete((info, ex) -> {
+            boolean found = ex == null && info.getBlockNumber() > 0;
+            synchronized (this) {
+                if (found) {
+                    // At its deadline, the transaction is no longer pending
+                    if (last || pending.remove(p.key) == p) {
+                        include(p, info.getBlockNumber());
+                    }
+                } else if (!last && ex != null && pending.get(p.key) == p) {
+                    retries.add(p);
+                }
+            }
+            if (found) {
+                confirm();
+            } else if (last) {
+                p.future.completeExceptionally(new ConfirmationTimeoutException("Transaction " + p.txId.toHex()
+                        + " not confirmed after " + timeoutBlocks + " blocks."));
+            }
+        });
+    }
+
+    private void include(Pending p, long blockNumber) {
+        p.target = blockNumber + p.depth;
+        included.add(p);
+    }
+
+    /**
+     * Looks up the transactions deep enough in the chain and completes their futures.
+     */
+    private void confirm() {
+        List<Pending> confirmed = new ArrayList<>();
+        synchronized (this) {
+            while (!included.isEmpty() && included.peek().target <= head) {
+                confirmed.add(included.poll());
+            }
+        }
+        for (Pending p : confirmed) {
+            client.async().getTransactionInformation(p.txId).whenComplete((info, ex) -> {
+                if (ex == null && info.getBlockNumber() > 0) {
+                    p.future.complete(info);
+                    return;
+                }
+                // Failed lookup, or no longer in a block (node behind or fork)
+                boolean expired;
+                synchronized (this) {
+                    expired = head >= p.target + timeoutBlocks;
+                    if (!expired) {
+                        // Looked up again with the next block
+                        included.add(p);
+                    }
+                }
+                if (expired) {
+                    p.future.completeExceptionally(new ConfirmationTimeoutException("Information of transaction "
+                            + p.txId.toHex() + " not found " + timeoutBlocks + " blocks after its confirmation."));
+                }
+            });
+        }
+    }
+
+    /**
+     * A tracked transaction.
+     */
+    private static class Pending {
+        private final HashIdentifier txId;
+        private final String key;
+        private final int depth;
+        private final CompletableFuture<TronTransactionInformation> future;
+        private long deadline;
+        private long target;
+
+        private Pending(HashIdentifier txId, String key, int depth) {
+            this.txId = txId;
+            this.key = key;
+            this.depth = depth;
+            this.future = new CompletableFuture<>();
+            this.deadline = -1;
+            this.target = -1;
+        }
+    }
+}
@@ -1757,7 +1757,7 @@ class ConsoleClientModules {
     public static void listenFoAllEvents(Map<String, Object> options, Map<String, Object> params)
             throws GRPCException {
         TronClient client = getClient(options, false);
-        Map<TronAddress, TronSmartContract> cache = new TreeMap<>();
+        Map<TronAddress, TronSmartContract> cache = new HashMap<>();
         final boolean show_blocks = params.containsKey("show-blocks");
 
         long blockNum;
@@ -2297,7 +2297,7 @@ class ConsoleClientModules {
 
         System.out.println("TR20: " + proxy.name() + " | Symbol: " + proxy.symbol() + " | Decimals: " + proxy.decimals() + " | Total supply: " + proxy.totalSupply());
 
-        Map<TronAddress, List<BigInteger>> balances = new TreeMap<>();
+        Map<TronAddress, List<BigInteger>> balances = new HashMap<>();
 
         long lastTimeReport = System.currentTimeMillis();
 
@@ -2376,8 +2376,10 @@ class ConsoleClientModules {
 
         pw.println("ACCOUNT,BALANCE");
 
-        for (TronAddress account : balances.keySet()) {
-            if (account.equals(new TronAddress("T9yD14Nj9j7xAB4dbGeiX9h8unkKHxuWwb")));
+        List<TronAddress> accounts = new ArrayList<>(balances.keySet());
+        Collections.sort(accounts);
+
+        for (TronAddress account : accounts) {
             List<BigInteger> changesReverse = balances.get(account);
 
             BigInteger balanceNow = BigInteger.ZERO;
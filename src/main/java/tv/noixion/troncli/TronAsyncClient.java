@@ -0,0 +1,460 @@
+package tv.noixion.troncli;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.tron.api.GrpcAPI;
+import org.tron.core.exception.EncodingException;
+import org.tron.protos.Contract;
+import org.tron.protos.Protocol;
+import tv.noixion.troncli.exceptions.GRPCException;
+import tv.noixion.troncli.exceptions.TransactionException;
+import tv.noixion.troncli.grpc.BroadcastMode;
+import tv.noixion.troncli.grpc.GrpcClient;
+import tv.noixion.troncli.grpc.HedgingPolicy;
+import tv.noixion.troncli.grpc.SharedScheduler;
+import tv.noixion.troncli.models.*;
+import tv.noixion.troncli.utils.TransactionUtils;
+import tv.noixion.troncli.utils.TriggerContractDataBuilder;
+import tv.noixion.troncli.utils.TriggerContractResult;
+import tv.noixion.troncli.utils.TronContracts;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Asynchronous client for the Tron network.
+ * Calls do not block the caller thread, the results are delivered through {@link CompletableFuture}s.
+ * Failures complete the futures exceptionally with the same exceptions thrown by {@link TronClient}
+ * ({@link GRPCException}, {@link TransactionException} or {@link EncodingException}).
+ */
+public class TronAsyncClient {
+    private final TronClient client;
+
+    /**
+     * Creates a new asynchronous client, sharing the nodes and connections of a client.
+     *
+     * @param client The client.
+     */
+    public TronAsyncClient(TronClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @return The synchronous client.
+     */
+    public TronClient getClient() {
+        return client;
+    }
+
+    /**
+     * Gets a block by its number.
+     *
+     * @param number The block number.
+     * @return The block.
+     */
+    public CompletableFuture<TronBlock> getBlock(long number) {
+        return client.getBlockFlight().submit(number,
+                () -> hedged(c -> c.getBlock2Async(number), "Could not fetch block.")
+                        .thenApply(TronBlock::new));
+    }
+
+    /**
+     * Gets a range of blocks, with one call to the node. The nodes return at most
+     * {@link TronClient#MAX_BLOCK_RANGE} blocks per call.
+     *
+     * @param start The number of the first block.
+     * @param end   The number of the block after the last one (exclusive).
+     * @return The blocks, in order. The list is shorter if the node does not have all the blocks yet.
+     */
+    public CompletableFuture<List<TronBlock>> getBlocks(long start, long end) {
+        if (end - start > TronClient.MAX_BLOCK_RANGE || end < start) {
+            return failed(new IllegalArgumentException("Invalid block range."));
+        }
+        return failover(c -> c.getBlockByLimitNext2Async(start, end), "Could not fetch blocks.")
+                .thenApply(blocks -> {
+                    List<TronBlock> result = new ArrayList<>(blocks.getBlockCount());
+                    for (GrpcAPI.BlockExtention block : blocks.getBlockList()) {
+                        result.add(new TronBlock(block));
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Gets the last bock.
+     *
+     * @return The last block.
+     */
+    public CompletableFuture<TronBlock> getLastBlock() {
+        return this.getBlock(-1L);
+    }
+
+    /**
+     * Queries tha information of an account by its address.
+     *
+     * @param address the account address.
+     * @return The account information
+     */
+    public CompletableFuture<TronAccount> getAccountByAddress(TronAddress address) {
+        return client.getAccountFlight().submit(address.toString(),
+                () -> hedged(c -> c.queryAccountAsync(address.getBytes()), "Could not fetch account information.")
+                        .thenApply(TronAccount::new));
+    }
+
+    /**
+     * Gets the execution information of a transaction,
+     *
+     * @param id the identifier of the transaction.
+     * @return The transaction information.
+     */
+    public CompletableFuture<TronTransactionInformation> getTransactionInformation(HashIdentifier id) {
+        return hedged(c -> c.getTransactionInfoByIdAsync(id.toString()),
+                "Could not fetch transaction information.")
+                .thenApply(TronTransactionInformation::new);
+    }
+
+    /**
+     * Gets an smart contract deployed on the Tron network.
+     *
+     * @param address The contract address.
+     * @return The Smart contract.
+     */
+    public CompletableFuture<TronSmartContract> getContract(TronAddress address) {
+        return client.getContractFlight().submit(address.toString(),
+                () -> hedged(c -> c.getContractAsync(address.getBytes()), "Could not fetch contract information.")
+                        .thenApply(TronSmartContract::new));
+    }
+
+    /**
+     * Transfers coins (TRX / SUN)
+     *
+     * @param owner    The owner of the founds.
+     * @param receiver The receiver of the founds.
+     * @param amount   The amount of currency to  send
+     * @return The transaction sent to the blockchain.
+     */
+    public CompletableFuture<TronTransaction> transfer(TronWallet owner, TronAddress receiver, TronCurrency amount) {
+        Contract.TransferContract contract = TronContracts.createTransferContract(receiver.getBytes(),
+                owner.getAddress().getBytes(), amount.getSUN());
+
+        return failover(c -> c.createTransaction2Async(contract), "Could not perform the action")
+                .thenCompose(ex -> this.signAndBroadcast(ex, owner.getPrivateKey()));
+    }
+
+    /**
+     * Triggers a smart contract, calling one method.
+     *
+     * @param owner           Sender of the transaction.
+     * @param contractAddress The address of the smart contract you want to trigger.
+     * @param call            The smart contract method call.
+     * @param feeLimit        The fee limit of the transaction.
+     * @param callValue       the method call value.
+     * @return The call result.
+     */
+    public CompletableFuture<TriggerContractResult> triggerSmartContract(TronWallet owner,
+                                                                         TronAddress contractAddress,
+                                                                         TriggerContractDataBuilder call,
+                                                                         TronCurrency feeLimit,
+                                                                         TronCurrency callValue) {
+        return this.triggerSmartContract(owner, contractAddress, call, feeLimit, callValue, 0, 0);
+    }
+
+    /**
+     * Triggers a smart contract, calling one method.
+     *
+     * @param owner            Sender of the transaction.
+     * @param contractAddress  The address of the smart contract you want to trigger.
+     * @param call             The smart contract method call.
+     * @param feeLimit         The fee limit of the transaction.
+     * @param callValue        the method call value.
+     * @param callValueTokenId The token to send as a token call value
+     * @param callValueToken   The number of tokens to send as call value
+     * @return The call result.
+     */
+    public CompletableFuture<TriggerContractResult> triggerSmartContract(TronWallet owner,
+                                                                         TronAddress contractAddress,
+                                                                         TriggerContractDataBuilder call,
+                                                                         TronCurrency feeLimit,
+                                                                         TronCurrency callValue,
+                                                                         long callValueTokenId,
+                                                                         long callValueToken) {
+        Contract.TriggerSmartContract triggerContract;
+        try {
+            triggerContract = TronContracts.triggerCallContract(owner.getAddress().getBytes(),
+                    contractAddress.getBytes(),
+                    callValue.getSUN(),
+                    callValueTokenId,
+                    callValueToken,
+                    call.build());
+        } catch (EncodingException ex) {
+            return failed(ex);
+        }
+
+        return failover(c -> c.triggerContractAsync(triggerContract), "Could not perform the action")
+                .thenCompose(ex -> {
+                    if (!ex.getResult().getResult()) {
+                        return failed(new TransactionException(ex.getResult().getCode(),
+                                ex.getResult().getMessage().toStringUtf8()));
+                    }
+                    if (ex.getTransaction().getRetCount() != 0 && ex.getConstantResultCount() > 0) {
+                        return CompletableFuture.completedFuture(
+                                new TriggerContractResult(ex.getConstantResult(0).toByteArray()));
+                    }
+                    return this.signAndBroadcast(TransactionUtils.setFeeLimit(ex, feeLimit.getSUN()),
+                            owner.getPrivateKey())
+                            .thenApply(TriggerContractResult::new);
+                });
+    }
+
+    /**
+     * Calls a constant (view or pure) method of a smart contract. The call is executed by one node
+     * and nothing is signed or broadcasted.
+     *
+     * @param caller          The address used as the sender of the call.
+     * @param contractAddress The address of the smart contract.
+     * @param call            The smart contract method call.
+     * @return The call result.
+     */
+    public CompletableFuture<TriggerContractResult> callConstantContract(TronAddress caller,
+                                                                         TronAddress contractAddress,
+                                                                         TriggerContractDataBuilder call) {
+        Contract.TriggerSmartContract triggerContract;
+        try {
+            triggerContract = TronContracts.triggerCallContract(caller.getBytes(), contractAddress.getBytes(),
+                    0, 0, 0, call.build());
+        } catch (EncodingException ex) {
+            return failed(ex);
+        }
+
+        return failover(c -> c.triggerContractAsync(triggerContract), "Could not perform the action")
+                .thenCompose(ex -> {
+                    if (!ex.getResult().getResult()) {
+                        return failed(new TransactionException(ex.getResult().getCode(),
+                                ex.getResult().getMessage().toStringUtf8()));
+                    }
+                    if (ex.getConstantResultCount() == 0) {
+                        return failed(new TransactionException(null, "The method is not constant."));
+                    }
+                    return CompletableFuture.completedFuture(
+                            new TriggerContractResult(ex.getConstantResult(0).toByteArray()));
+                });
+    }
+
+    /**
+     * Broadcasts transaction (already signed).
+     *
+     * @param rawData    The transaction raw data
+     * @param signatures The transaction signatures
+     * @return A future completed when the transaction is accepted by a node.
+     */
+    public CompletableFuture<Void> broadcastTransaction(byte[] rawData, List<byte[]> signatures) {
+        Protocol.Transaction.raw raw;
+        try {
+            raw = Protocol.Transaction.raw.parseFrom(rawData);
+        } catch (InvalidProtocolBufferException ex) {
+            return failed(ex);
+        }
+        Protocol.Transaction.Builder txBuilder = Protocol.Transaction.newBuilder().setRawData(raw);
+        for (byte[] signature : signatures) {
+            txBuilder.addSignature(ByteString.copyFrom(signature));
+        }
+        return this.broadcast(txBuilder.build()).thenApply(tx -> null);
+    }
+
+    /* Private */
+
+    private CompletableFuture<TronTransaction> signAndBroadcast(GrpcAPI.TransactionExtention transactionExtention,
+                                                                TronPrivateKey privateKey) {
+        Protocol.Transaction transaction;
+        try {
+            transaction = TransactionUtils.prepareTransactionExtention(transactionExtention, privateKey);
+        } catch (TransactionException ex) {
+            return failed(ex);
+        }
+        return this.broadcast(transaction).thenApply(TronTransaction::new);
+    }
+
+    private CompletableFuture<Protocol.Transaction> broadcast(Protocol.Transaction transaction) {
+        if (client.getConfig().getBroadcastMode() == BroadcastMode.FAN_OUT) {
+            return client.getBroadcaster().broadcastAsync(transaction);
+        }
+        return failover(c -> c.broadcastTransactionAsync(transaction), "Could not perform the action")
+                .thenCompose(response -> {
+                    if (!response.getResult()) {
+                        return failed(new TransactionException(response.getCode(),
+                                response.getMessage().toStringUtf8()));
+                    }
+                    return CompletableFuture.completedFuture(transaction);
+                });
+    }
+
+    /**
+     * Runs a call against the candidate nodes of the pool, in order, until one of them answers.
+     * The next node is only tried once the previous call failed, so no thread is blocked while waiting.
+     */
+    private <T> CompletableFuture<T> failover(Function<GrpcClient, ListenableFuture<T>> call, String errorMessage) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(client.getNodePool().candidates().iterator(), call, result, new GRPCException(errorMessage));
+        return result;
+    }
+
+    private <T> void attempt(Iterator<GrpcClient> nodes, Function<GrpcClient, ListenableFuture<T>> call,
+                             CompletableFuture<T> result, GRPCException exception) {
+        if (result.isDone()) {
+            return;
+        }
+        if (!nodes.hasNext()) {
+            result.completeExceptionally(exception);
+            return;
+        }
+        ListenableFuture<T> future;
+        try {
+            future = call.apply(nodes.next());
+        } catch (Exception ex) {
+            attempt(nodes, call, result, new GRPCException(ex.getMessage()));
+            return;
+        }
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        Futures.addCallback(future, new FutureCallback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                if (value == null) {
+                    attempt(nodes, call, result, exception);
+                } else {
+                    result.complete(value);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                attempt(nodes, call, result, new GRPCException(t.getMessage()));
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Runs a read call with hedging, if enabled for the client (see {@link TronClient#setHedgingPolicy(HedgingPolicy)}).
+     * Otherwise, it is the same as the failover.
+     */
+    private <T> CompletableFuture<T> hedged(Function<GrpcClient, ListenableFuture<T>> call, String errorMessage) {
+        HedgingPolicy policy = client.getHedgingPolicy();
+        List<GrpcClient> nodes = client.getNodePool().candidates();
+        if (policy == null || nodes.size() < 2) {
+            return failover(call, errorMessage);
+        }
+        HedgedCall<T> hedgedCall = new HedgedCall<>(nodes, call, new GRPCException(errorMessage));
+        hedgedCall.launch();
+        SharedScheduler.get().schedule(hedgedCall::hedge, policy.getDelayNanos(nodes.get(0).getStats()),
+                TimeUnit.NANOSECONDS);
+        return hedgedCall.result;
+    }
+
+    /**
+     * Call sent to the primary node, and to a second node if the primary is slow.
+     * The first good answer wins and the other call is cancelled.
+     * If every started call fails, the remaining nodes are tried in order.
+     */
+    private static class HedgedCall<T> {
+        private final List<GrpcClient> nodes;
+        private final Function<GrpcClient, ListenableFuture<T>> call;
+        private final CompletableFuture<T> result;
+        private final List<ListenableFuture<T>> started;
+        private GRPCException exception;
+        private int next;
+        private int pending;
+        private boolean hedged;
+
+        private HedgedCall(List<GrpcClient> nodes, Function<GrpcClient, ListenableFuture<T>> call,
+                           GRPCException exception) {
+            this.nodes = nodes;
+            this.call = call;
+            this.result = new CompletableFuture<>();
+            this.started = new ArrayList<>();
+            this.exception = exception;
+            this.next = 0;
+            this.pending = 0;
+            this.hedged = false;
+            this.result.whenComplete((value, ex) -> this.cancelAll());
+        }
+
+        private synchronized void hedge() {
+            if (!hedged && !result.isDone()) {
+                hedged = true;
+                launch();
+            }
+        }
+
+        private synchronized void launch() {
+            while (!result.isDone() && next < nodes.size()) {
+                ListenableFuture<T> future;
+                try {
+                    future = call.apply(nodes.get(next++));
+                } catch (Exception ex) {
+                    exception = new GRPCException(ex.getMessage());
+                    continue;
+                }
+                pending++;
+                started.add(future);
+                Futures.addCallback(future, new FutureCallback<T>() {
+                    @Override
+                    public void onSuccess(T value) {
+                        if (value == null) {
+                            failed(null);
+                        } else {
+                            result.complete(value);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        failed(t);
+                    }
+                }, MoreExecutors.directExecutor());
+                return;
+            }
+            if (!result.isDone() && pending == 0) {
+                result.completeExceptionally(exception);
+            }
+        }
+
+        private synchronized void failed(Throwable t) {
+            pending--;
+            if (t != null) {
+                exception = new GRPCException(t.getMessage());
+            }
+            if (pending == 0) {
+                launch();
+            }
+        }
+
+        private void cancelAll() {
+            List<ListenableFuture<T>> futures;
+            synchronized (this) {
+                futures = new ArrayList<>(started);
+            }
+            for (ListenableFuture<T> future : futures) {
+                if (!future.isDone()) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable ex) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        result.completeExceptionally(ex);
+        return result;
+    }
+}
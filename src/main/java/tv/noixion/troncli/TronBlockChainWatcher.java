@@ -3,23 +3,76 @@ package tv.noixion.troncli;
 import tv.noixion.troncli.models.TronBlock;
 import tv.noixion.troncli.models.TronTransaction;
 import tv.noixion.troncli.models.TronTransactionInformation;
+import tv.noixion.troncli.utils.BlockClock;
+import tv.noixion.troncli.utils.CheckpointStore;
 import tv.noixion.troncli.utils.TronEventHandler;
+import tv.noixion.troncli.utils.TronEventInterest;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a watcher of the Tron blockchain.
+ * The blocks go through a pipeline: this thread fetches them, a resolver thread looks up the information
+ * of their transactions, and each handler has its own thread receiving them in order. The stages are
+ * connected by bounded queues, so a slow handler only delays the fetching when its queue is full.
+ * With a {@link CheckpointStore}, the last block handled by all the handlers is saved, and the watcher
+ * resumes after it when it is started again.
  */
 public class TronBlockChainWatcher extends Thread {
     public static final int TRON_BLOCK_INTERVAL = 3 * 1000; // 3 seconds
+    public static final int DEFAULT_CATCH_UP_BATCH = 20;
+    public static final long DEFAULT_CATCH_UP_LAG = 20;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+    public static final int DEFAULT_PREFETCH_DEPTH = 1;
 
     private final TronClient client;
     private final long startBlock;
-    private final List<TronEventHandler> handlers;
+    private final List<Dispatcher> dispatchers;
+    private volatile int handlersVersion;
+    private final BlockClock blockClock;
+    private final WatcherMetrics metrics;
+    private final List<WatcherMetricsListener> metricsListeners;
+    private ObjectName mbeanName;
+    private long firstBlock;
     private long nextBlock;
-    private boolean stop;
+    private volatile long lastResolved;
+    private CheckpointStore checkpointStore;
+    private long checkpoint;
+    private volatile boolean stop;
     private boolean onlyBlocks;
+    private volatile int parallelism;
+    private final AtomicInteger lookupsInFlight;
+    private int queueCapacity;
+    private volatile int prefetchDepth;
+    private final Map<Long, CompletableFuture<TronBlock>> ahead;
+    private BlockingQueue<TronBlock> fetched;
+    private volatile boolean running;
+    private int catchUpBatch;
+    private long catchUpLag;
+    private int rangeSize;
+    private boolean catchingUp;
+    private CompletableFuture<List<TronBlock>> prefetched;
+    private long prefetchedStart;
 
     public TronBlockChainWatcher(TronClient client, long startBlock) {
         this(client, startBlock, false);
@@ -28,9 +81,26 @@ public class TronBlockChainWatcher extends Thread {
     public TronBlockChainWatcher(TronClient client, long startBlock, boolean onlyBlocks) {
         this.client = client;
         this.startBlock = startBlock;
+        this.firstBlock = startBlock;
+        this.checkpointStore = null;
         this.stop = false;
-        this.handlers = new ArrayList<>();
+        this.dispatchers = new CopyOnWriteArrayList<>();
+        this.blockClock = new BlockClock(TRON_BLOCK_INTERVAL, BlockClock.DEFAULT_MIN_POLL_MS);
+        this.metrics = new WatcherMetrics();
+        this.metricsListeners = new CopyOnWriteArrayList<>();
+        this.metricsListeners.add(metrics);
+        this.mbeanName = null;
         this.onlyBlocks = onlyBlocks;
+        this.parallelism = 1;
+        this.lookupsInFlight = new AtomicInteger(0);
+        this.queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        this.prefetchDepth = DEFAULT_PREFETCH_DEPTH;
+        this.ahead = new HashMap<>();
+        this.running = false;
+        this.catchUpBatch = DEFAULT_CATCH_UP_BATCH;
+        this.catchUpLag = DEFAULT_CATCH_UP_LAG;
+        this.catchingUp = false;
+        this.prefetched = null;
     }
 
     /**
@@ -39,7 +109,63 @@ public class TronBlockChainWatcher extends Thread {
      * @param handler The event handler.
      */
     public void addHandler(TronEventHandler handler) {
-        this.handlers.add(handler);
+        addHandler(handler, -1);
+    }
+
+    /**
+     * Adds a new event handler, receiving the blocks from the given one.
+     * A handler added while the watcher is running receives the blocks after the last one sent to the
+     * other handlers, with the transactions it is interested in.
+     *
+     * @param handler   The event handler.
+     * @param fromBlock The first block sent to the handler, -1 for the next block.
+     * @throws IllegalArgumentException If the watcher is running and already after the block.
+     */
+    synchronized void addHandler(TronEventHandler handler, long fromBlock) {
+        if (running && fromBlock >= 0 && fromBlock <= lastResolved) {
+            throw new IllegalArgumentException("The watcher is already after block " + fromBlock + ".");
+        }
+        Dispatcher dispatcher = new Dispatcher(handler, queueCapacity, fromBlock);
+        this.dispatchers.add(dispatcher);
+        // The blocks in the resolver are filtered again with the interest of the new handler
+        handlersVersion++;
+        if (running) {
+            dispatcher.start();
+        }
+    }
+
+    /**
+     * @param handler The event handler.
+     * @return The number of the last block handled by the handler, or -1 if it is not a handler of this watcher.
+     */
+    long getHandled(TronEventHandler handler) {
+        Dispatcher dispatcher = dispatcherOf(handler);
+        return dispatcher == null ? -1 : dispatcher.handled;
+    }
+
+    /**
+     * @param handler The event handler.
+     * @return The number of blocks waiting to be sent to the handler.
+     */
+    int getPending(TronEventHandler handler) {
+        Dispatcher dispatcher = dispatcherOf(handler);
+        return dispatcher == null ? 0 : dispatcher.queue.size();
+    }
+
+    /**
+     * @return The number of event handlers.
+     */
+    int getHandlerCount() {
+        return this.dispatchers.size();
+    }
+
+    private Dispatcher dispatcherOf(TronEventHandler handler) {
+        for (Dispatcher dispatcher : this.dispatchers) {
+            if (dispatcher.handler == handler) {
+                return dispatcher;
+            }
+        }
+        return null;
     }
 
     /**
@@ -47,14 +173,193 @@ public class TronBlockChainWatcher extends Thread {
      *
      * @param handler The event handler.
      */
-    public void removeHandler(TronEventHandler handler) {
-        this.handlers.remove(handler);
+    public synchronized void removeHandler(TronEventHandler handler) {
+        Dispatcher dispatcher = dispatcherOf(handler);
+        if (dispatcher != null) {
+            // Not interrupted: the handler may be removing itself, and an interrupt would close the
+            // channel of a file checkpoint store. The dispatcher stops within a poll interval.
+            this.dispatchers.remove(dispatcher);
+            if (running) {
+                // The removed handler may have been holding the checkpoint back
+                saveCheckpoint();
+            }
+        }
+    }
+
+    /**
+     * @return The metrics of the watcher.
+     */
+    public WatcherMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Adds a listener of the metrics of the watcher.
+     *
+     * @param listener The listener.
+     */
+    public void addMetricsListener(WatcherMetricsListener listener) {
+        this.metricsListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener of the metrics of the watcher.
+     *
+     * @param listener The listener.
+     */
+    public void removeMetricsListener(WatcherMetricsListener listener) {
+        this.metricsListeners.remove(listener);
+    }
+
+    /**
+     * Registers the metrics of the watcher in the platform MBean server,
+     * as "tv.noixion.troncli:type=TronBlockChainWatcher,name=[name of the thread]".
+     *
+     * @throws JMException If the MBean could not be registered.
+     */
+    public synchronized void registerMBean() throws JMException {
+        if (mbeanName == null) {
+            ObjectName name = new ObjectName("tv.noixion.troncli:type=TronBlockChainWatcher,name="
+                    + ObjectName.quote(getName()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+            mbeanName = name;
+        }
+    }
+
+    /**
+     * Unregisters the metrics of the watcher from the platform MBean server.
+     *
+     * @throws JMException If the MBean could not be unregistered.
+     */
+    public synchronized void unregisterMBean() throws JMException {
+        if (mbeanName != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(mbeanName)) {
+                server.unregisterMBean(mbeanName);
+            }
+            mbeanName = null;
+        }
+    }
+
+    /**
+     * Sets the capacity of the queues between the stages of the watcher.
+     * Must be called before the watcher is started.
+     *
+     * @param capacity The max number of blocks waiting in each queue ({@value #DEFAULT_QUEUE_CAPACITY} by default).
+     */
+    public synchronized void setQueueCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1.");
+        }
+        if (running) {
+            throw new IllegalStateException("The watcher is already running.");
+        }
+        this.queueCapacity = capacity;
+        for (Dispatcher dispatcher : this.dispatchers) {
+            dispatcher.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    /**
+     * @return The max number of blocks waiting in each queue between the stages of the watcher.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Sets the number of blocks fetched in advance while the current block is handled.
+     * When the watcher is behind the head, the next blocks are requested before they are needed,
+     * and the resolver starts the lookups of the next blocks while it waits for the current one.
+     *
+     * @param depth The number of blocks fetched in advance ({@value #DEFAULT_PREFETCH_DEPTH} by default,
+     *              0 to disable).
+     */
+    public void setPrefetchDepth(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("The prefetch depth must be positive.");
+        }
+        this.prefetchDepth = depth;
+    }
+
+    /**
+     * @return The number of blocks fetched in advance while the current block is handled.
+     */
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    /**
+     * Sets the max number of transaction information lookups in progress at the same time, for all the
+     * blocks being resolved (including the blocks fetched in advance).
+     * The handlers still receive the transactions in block order.
+     *
+     * @param parallelism The number of concurrent lookups (1 by default).
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least 1.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return The max number of transaction information lookups in progress at the same time.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Configures the catch-up mode. When the watcher is more than "lag" blocks behind the head,
+     * it fetches ranges of blocks with one call per range, and fetches the next range while the
+     * handlers process the current one. Near the head it goes back to polling one block at a time.
+     * Big ranges may need a bigger max inbound message size (see {@link TronClientConfig}),
+     * the range is halved if a call fails, and doubled back up to the batch after each call that succeeds.
+     *
+     * @param batch The number of blocks per range (max {@link TronClient#MAX_BLOCK_RANGE}), 0 to disable catch-up.
+     * @param lag   The number of blocks behind the head to start catching up.
+     */
+    public void setCatchUp(int batch, long lag) {
+        if (batch < 0 || batch > TronClient.MAX_BLOCK_RANGE || lag < 1) {
+            throw new IllegalArgumentException("Invalid catch-up settings.");
+        }
+        this.catchUpBatch = batch;
+        this.catchUpLag = lag;
+    }
+
+    /**
+     * Sets the store of the checkpoints. The store is closed when the watcher stops.
+     *
+     * @param store The checkpoint store, or null to disable the checkpoints.
+     */
+    public void setCheckpointStore(CheckpointStore store) {
+        this.checkpointStore = store;
+    }
+
+    /**
+     * @return The checkpoint store, or null if the checkpoints are disabled.
+     */
+    public CheckpointStore getCheckpointStore() {
+        return checkpointStore;
     }
 
     /**
      * Starts the watching process.
+     * If the checkpoint store has a checkpoint, the watcher resumes after it instead of the start block.
+     *
+     * @throws UncheckedIOException If the checkpoint could not be read.
      */
     public void startWatching() {
+        long saved = -1;
+        if (checkpointStore != null) {
+            try {
+                saved = checkpointStore.load();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        firstBlock = saved >= 0 ? saved + 1 : startBlock;
         this.start();
     }
 
@@ -67,11 +372,55 @@ public class TronBlockChainWatcher extends Thread {
 
     @Override
     public void run() {
-        nextBlock = startBlock;
+        nextBlock = firstBlock;
+        lastResolved = firstBlock - 1;
+        checkpoint = firstBlock - 1;
+        rangeSize = catchUpBatch;
+        fetched = new ArrayBlockingQueue<>(queueCapacity);
+        Thread resolver = new Thread(this::resolve, getName() + "-resolver");
+        resolver.setDaemon(true);
+        resolver.start();
+        synchronized (this) {
+            running = true;
+            for (Dispatcher dispatcher : this.dispatchers) {
+                dispatcher.handled = lastResolved;
+                dispatcher.start();
+            }
+        }
+        try {
+            fetch();
+        } finally {
+            stop = true;
+            if (checkpointStore != null) {
+                try {
+                    checkpointStore.close();
+                } catch (IOException ex) {
+                }
+            }
+            try {
+                unregisterMBean();
+            } catch (JMException ex) {
+            }
+        }
+    }
+
+    /**
+     * Fetcher stage: gets the blocks in order and sends them to the resolver.
+     */
+    private void fetch() {
         while (!stop) {
+            if (catchingUp) {
+                if (catchUp()) {
+                    continue;
+                }
+                catchingUp = false;
+                prefetched = null;
+            }
             if (!getNextBlock()) {
+                // Sleeps until the next block is expected, then polls often until it arrives
+                blockClock.onMiss();
                 try {
-                    Thread.sleep(TRON_BLOCK_INTERVAL);
+                    Thread.sleep(blockClock.getPollDelayMs());
                 } catch (InterruptedException ex) {
                     return;
                 }
@@ -83,40 +432,501 @@ public class TronBlockChainWatcher extends Thread {
         TronBlock block;
 
         try {
-            block = client.getBlock(nextBlock);
+            CompletableFuture<TronBlock> prefetchedBlock = ahead.remove(nextBlock);
+            block = prefetchedBlock != null ? prefetchedBlock.get() : client.getBlock(nextBlock);
+        } catch (InterruptedException ex) {
+            stop = true;
+            return false;
         } catch (Exception ex) {
+            ahead.clear();
+            for (WatcherMetricsListener listener : this.metricsListeners) {
+                listener.onRpcFailure("getBlock", ex);
+            }
             return false;
         }
 
         if (block.getNumber() == nextBlock) {
-            for (TronEventHandler handler : this.handlers) {
+            blockClock.onBlock(block);
+            long head = estimateHead(block);
+            onBlockFetched(block, head);
+            if (!handleBlock(block)) {
+                return false;
+            }
+            nextBlock++;
+            // The block timestamp shows if the watcher is far behind the head
+            if (catchUpBatch > 0 && System.currentTimeMillis() - block.getDate().getTime()
+                    > catchUpLag * TRON_BLOCK_INTERVAL) {
+                catchingUp = true;
+                ahead.clear();
+                return true;
+            }
+            // Behind the head, the next blocks already exist and can be requested now
+            for (long number = nextBlock; number < nextBlock + prefetchDepth && number <= head; number++) {
+                if (!ahead.containsKey(number)) {
+                    ahead.put(number, client.async().getBlock(number));
+                }
+            }
+            return true;
+        } else {
+            ahead.clear();
+            return false;
+        }
+    }
+
+    /**
+     * Handles the next range of blocks, and starts fetching the range after it.
+     *
+     * @return false if the watcher is near the head or the range could not be fetched.
+     */
+    private boolean catchUp() {
+        long head;
+        List<TronBlock> blocks;
+        try {
+            head = client.getLastBlock().getNumber();
+            if (head - nextBlock < catchUpLag) {
+                return false;
+            }
+            long end = Math.min(nextBlock + rangeSize, head + 1);
+            CompletableFuture<List<TronBlock>> range = prefetched != null && prefetchedStart == nextBlock
+                    ? prefetched : client.async().getBlocks(nextBlock, end);
+            prefetched = null;
+            blocks = range.get();
+        } catch (InterruptedException ex) {
+            stop = true;
+            return false;
+        } catch (Exception ex) {
+            for (WatcherMetricsListener listener : this.metricsListeners) {
+                listener.onRpcFailure("getBlocks", ex);
+            }
+            rangeSize = Math.max(1, rangeSize / 2);
+            return false;
+        }
+        if (blocks.isEmpty()) {
+            return false;
+        }
+        // Grows back after the failures of transient errors
+        rangeSize = Math.min(catchUpBatch, rangeSize * 2);
+
+        long nextStart = nextBlock + blocks.size();
+        long nextEnd = Math.min(nextStart + rangeSize, head + 1);
+        if (nextStart < nextEnd) {
+            prefetchedStart = nextStart;
+            prefetched = client.async().getBlocks(nextStart, nextEnd);
+        }
+
+        for (TronBlock block : blocks) {
+            if (block.getNumber() == nextBlock) {
+                onBlockFetched(block, head);
+            }
+            if (block.getNumber() != nextBlock || !handleBlock(block)) {
+                prefetched = null;
+                return false;
+            }
+            nextBlock++;
+        }
+        blockClock.onBlock(blocks.get(blocks.size() - 1));
+        return true;
+    }
+
+    /**
+     * Estimates the head of the node from the timestamp of a block, without calling the node.
+     */
+    private long estimateHead(TronBlock block) {
+        long late = System.currentTimeMillis() - block.getDate().getTime() - blockClock.getLagMs();
+        return block.getNumber() + Math.max(0, late / Math.max(1, blockClock.getIntervalMs()));
+    }
+
+    private void onBlockFetched(TronBlock block, long head) {
+        long lag = Math.max(0, head - block.getNumber());
+        for (WatcherMetricsListener listener : this.metricsListeners) {
+            listener.onBlockFetched(block.getNumber(), block.getTransactionCount(), lag);
+        }
+    }
+
+    /**
+     * Sends a block to the resolver, waiting while its queue is full.
+     *
+     * @return false if the watcher was stopped.
+     */
+    private boolean handleBlock(TronBlock block) {
+        return put(fetched, block);
+    }
+
+    /**
+     * Resolver stage: looks up the information of the transactions and sends the blocks to the handlers.
+     */
+    private void resolve() {
+        Deque<ResolvingBlock> window = new ArrayDeque<>();
+        while (!stop) {
+            // Takes the blocks already fetched, up to the prefetch depth, and starts their lookups
+            try {
+                TronBlock next = window.isEmpty() ? fetched.poll(TRON_BLOCK_INTERVAL, TimeUnit.MILLISECONDS)
+                        : fetched.poll();
+                while (next != null) {
+                    window.add(new ResolvingBlock(next));
+                    next = window.size() <= prefetchDepth ? fetched.poll() : null;
+                }
+            } catch (InterruptedException ex) {
+                return;
+            }
+            if (window.isEmpty()) {
+                continue;
+            }
+            ResolvingBlock resolving = window.poll();
+            TronBlock block = resolving.block;
+            List<TronTransactionInformation> infos = null;
+            List<Dispatcher> targets;
+            while (true) {
+                if (!onlyBlocks) {
+                    infos = handleTransactions(resolving.transactions, resolving.lookups);
+                    if (infos == null) {
+                        return;
+                    }
+                }
+                // The block goes to the handlers it was filtered for; a handler added later starts after it
+                synchronized (this) {
+                    if (onlyBlocks || resolving.version == handlersVersion) {
+                        targets = new ArrayList<>(this.dispatchers);
+                        lastResolved = block.getNumber();
+                        break;
+                    }
+                }
+                resolving.filter();
+            }
+            ResolvedBlock resolved = new ResolvedBlock(block, resolving.transactions, infos);
+            for (Dispatcher dispatcher : targets) {
+                if (!dispatcher.put(resolved)) {
+                    return;
+                }
+            }
+            if (this.dispatchers.isEmpty()) {
+                saveCheckpoint();
+            }
+        }
+    }
+
+    /**
+     * Saves the last block handled by all the handlers, if it changed.
+     */
+    private synchronized void saveCheckpoint() {
+        if (checkpointStore == null) {
+            return;
+        }
+        long handled = lastResolved;
+        for (Dispatcher dispatcher : this.dispatchers) {
+            handled = Math.min(handled, dispatcher.handled);
+        }
+        if (handled > checkpoint) {
+            try {
+                checkpointStore.save(handled);
+                checkpoint = handled;
+            } catch (IOException ex) {
+                // Saved with the next block
+            }
+        }
+    }
+
+    /**
+     * Filters the transactions at least one handler is interested in.
+     */
+    private List<TronTransaction> interesting(List<TronTransaction> transactions) {
+        boolean none = true;
+        for (Dispatcher dispatcher : this.dispatchers) {
+            if (dispatcher.interest.isAll()) {
+                return transactions;
+            }
+            none &= dispatcher.interest.isNone();
+        }
+        List<TronTransaction> result = new ArrayList<>();
+        if (none) {
+            return result;
+        }
+        for (TronTransaction tx : transactions) {
+            for (Dispatcher dispatcher : this.dispatchers) {
+                if (dispatcher.interest.matches(tx)) {
+                    result.add(tx);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Puts an element in a queue, waiting while it is full.
+     *
+     * @return false if the watcher was stopped.
+     */
+    private <T> boolean put(BlockingQueue<T> queue, T element) {
+        try {
+            while (!queue.offer(element, TRON_BLOCK_INTERVAL, TimeUnit.MILLISECONDS)) {
+                if (stop) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            stop = true;
+            return false;
+        }
+    }
+
+    /**
+     * Looks up the information of the transactions, with up to "parallelism" lookups in progress
+     * (including the lookups of the next blocks).
+     * A failed lookup is retried on its own.
+     *
+     * @param lookups The lookups of the transactions, in block order, null for the ones not started.
+     * @return The information of the transactions, in block order, or null if the watcher was stopped.
+     */
+    private List<TronTransactionInformation> handleTransactions(
+            List<TronTransaction> transactions, List<CompletableFuture<TronTransactionInformation>> lookups) {
+        List<TronTransactionInformation> infos = new ArrayList<>(transactions.size());
+        int next = 0;
+        for (int i = 0; i < transactions.size(); i++) {
+            // Starts the lookup needed now, then the next ones while there are free slots
+            while (next < transactions.size() && (next <= i || lookupsInFlight.get() < parallelism)) {
+                if (lookups.get(next) == null) {
+                    if (next <= i) {
+                        try {
+                            awaitLookupSlot();
+                        } catch (InterruptedException ex) {
+                            stop = true;
+                            return null;
+                        }
+                    }
+                    lookups.set(next, lookup(transactions.get(next)));
+                }
+                next++;
+            }
+            TronTransaction tx = transactions.get(i);
+            TronTransactionInformation info = null;
+            while (info == null) {
                 try {
-                    handler.handleBlock(this.client, block);
-                } catch (Exception ex) {
+                    info = lookups.get(i).get();
+                } catch (InterruptedException ex) {
+                    stop = true;
+                    return null;
+                } catch (ExecutionException ex) {
+                    try {
+                        Thread.sleep(TRON_BLOCK_INTERVAL);
+                    } catch (InterruptedException e) {
+                        stop = true;
+                        return null;
+                    }
+                    if (stop) {
+                        return null;
+                    }
+                    try {
+                        awaitLookupSlot();
+                    } catch (InterruptedException e) {
+                        stop = true;
+                        return null;
+                    }
+                    lookups.set(i, lookup(tx));
+                }
+            }
+            infos.add(info);
+        }
+        return infos;
+    }
+
+    /**
+     * Waits until fewer than "parallelism" lookups are in progress. Only the resolver starts lookups,
+     * so a free slot stays free until its next lookup.
+     */
+    private void awaitLookupSlot() throws InterruptedException {
+        synchronized (lookupsInFlight) {
+            while (lookupsInFlight.get() >= parallelism && !stop) {
+                lookupsInFlight.wait(TRON_BLOCK_INTERVAL);
+            }
+        }
+    }
+
+    private CompletableFuture<TronTransactionInformation> lookup(TronTransaction tx) {
+        long start = System.nanoTime();
+        lookupsInFlight.incrementAndGet();
+        return client.async().getTransactionInformation(tx.getId()).whenComplete((info, ex) -> {
+            synchronized (lookupsInFlight) {
+                lookupsInFlight.decrementAndGet();
+                lookupsInFlight.notifyAll();
+            }
+            long nanos = System.nanoTime() - start;
+            for (WatcherMetricsListener listener : this.metricsListeners) {
+                listener.onTransactionInformation(nanos, ex == null);
+                if (ex != null) {
+                    listener.onRpcFailure("getTransactionInformation", ex);
                 }
             }
+        });
+    }
+
+    /**
+     * A block waiting in the resolver, with the first lookups of its transactions started.
+     */
+    private class ResolvingBlock {
+        private final TronBlock block;
+        private final List<TronTransaction> all;
+        private List<TronTransaction> transactions;
+        private List<CompletableFuture<TronTransactionInformation>> lookups;
+        private int version;
+
+        private ResolvingBlock(TronBlock block) {
+            this.block = block;
+            this.all = onlyBlocks ? null : block.getTransactions();
+            this.transactions = null;
+            this.lookups = null;
             if (!onlyBlocks) {
-                for (TronTransaction tx : block.getTransactions()) {
-                    TronTransactionInformation info;
+                filter();
+                for (int i = 0; i < transactions.size() && lookupsInFlight.get() < parallelism; i++) {
+                    lookups.set(i, lookup(transactions.get(i)));
+                }
+            }
+        }
 
-                    try {
-                        info = client.getTransactionInformation(tx.getId());
-                    } catch (Exception ex) {
+        /**
+         * Filters the transactions with the interests of the current handlers, keeping the lookups
+         * already started.
+         */
+        private void filter() {
+            version = handlersVersion;
+            List<TronTransaction> filtered = interesting(all);
+            Map<TronTransaction, CompletableFuture<TronTransactionInformation>> started = new IdentityHashMap<>();
+            if (transactions != null) {
+                for (int i = 0; i < transactions.size(); i++) {
+                    if (lookups.get(i) != null) {
+                        started.put(transactions.get(i), lookups.get(i));
+                    }
+                }
+            }
+            List<CompletableFuture<TronTransactionInformation>> filteredLookups =
+                    new ArrayList<>(Collections.nCopies(filtered.size(), null));
+            for (int i = 0; i < filtered.size(); i++) {
+                filteredLookups.set(i, started.get(filtered.get(i)));
+            }
+            this.transactions = filtered;
+            this.lookups = filteredLookups;
+        }
+    }
+
+    /**
+     * A block with the transactions the handlers are interested in and their information
+     * (null if only the blocks are watched).
+     */
+    private static class ResolvedBlock {
+        private final TronBlock block;
+        private final List<TronTransaction> transactions;
+        private final List<TronTransactionInformation> infos;
+
+        private ResolvedBlock(TronBlock block, List<TronTransaction> transactions,
+                              List<TronTransactionInformation> infos) {
+            this.block = block;
+            this.transactions = transactions;
+            this.infos = infos;
+        }
+    }
+
+    /**
+     * Dispatch stage of one handler: a thread sending it the blocks of its queue, in order.
+     */
+    private class Dispatcher extends Thread {
+        private final TronEventHandler handler;
+        private volatile BlockingQueue<ResolvedBlock> queue;
+        private final TronEventInterest interest;
+        private final long fromBlock;
+        private volatile long handled;
+
+        private Dispatcher(TronEventHandler handler, int capacity, long fromBlock) {
+            super(TronBlockChainWatcher.this.getName() + "-handler");
+            this.handler = handler;
+            this.interest = handler.getInterest() == null ? TronEventInterest.ALL : handler.getInterest();
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.fromBlock = fromBlock;
+            this.handled = lastResolved;
+            this.setDaemon(true);
+        }
+
+        /**
+         * Puts a block in the queue, waiting while it is full.
+         *
+         * @return false if the watcher was stopped.
+         */
+        private boolean put(ResolvedBlock resolved) {
+            try {
+                while (!queue.offer(resolved, TRON_BLOCK_INTERVAL, TimeUnit.MILLISECONDS)) {
+                    if (stop) {
                         return false;
                     }
+                    if (!dispatchers.contains(this)) {
+                        return true; // The handler was removed
+                    }
+                }
+                return true;
+            } catch (InterruptedException ex) {
+                stop = true;
+                return false;
+            }
+        }
 
-                    for (TronEventHandler handler : this.handlers) {
+        @Override
+        public void run() {
+            while (!stop && dispatchers.contains(this)) {
+                ResolvedBlock resolved;
+                try {
+                    resolved = queue.poll(TRON_BLOCK_INTERVAL, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                if (resolved == null) {
+                    continue;
+                }
+                if (resolved.block.getNumber() < fromBlock) {
+                    handled(resolved.block.getNumber());
+                    continue;
+                }
+                long start = System.nanoTime();
+                Exception error = null;
+                try {
+                    handler.handleBlock(client, resolved.block);
+                } catch (Exception ex) {
+                    error = ex;
+                }
+                onHandlerCall(start, error);
+                if (resolved.infos != null) {
+                    for (int i = 0; i < resolved.transactions.size(); i++) {
+                        TronTransaction tx = resolved.transactions.get(i);
+                        if (!interest.isAll() && !interest.matches(tx)) {
+                            continue;
+                        }
+                        start = System.nanoTime();
+                        error = null;
                         try {
-                            handler.handleTransaction(this.client, tx, info);
+                            handler.handleTransaction(client, tx, resolved.infos.get(i));
                         } catch (Exception ex) {
+                            error = ex;
                         }
+                        onHandlerCall(start, error);
                     }
                 }
+                handled(resolved.block.getNumber());
+            }
+        }
+
+        /**
+         * Registers a handled block, unless the handler was removed meanwhile.
+         */
+        private void handled(long blockNumber) {
+            if (dispatchers.contains(this)) {
+                handled = blockNumber;
+                saveCheckpoint();
+            }
+        }
+
+        private void onHandlerCall(long start, Exception error) {
+            long nanos = System.nanoTime() - start;
+            for (WatcherMetricsListener listener : metricsListeners) {
+                listener.onHandlerCall(handler, nanos, error);
             }
-            nextBlock++;
-            return true;
-        } else {
-            return false;
         }
     }
 }
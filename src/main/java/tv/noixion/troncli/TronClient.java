@@ -4,7 +4,12 @@ import tv.noixion.troncli.exceptions.ConfirmationTimeoutException;
 import tv.noixion.troncli.exceptions.GRPCException;
 import tv.noixion.troncli.exceptions.TransactionException;
 import tv.noixion.troncli.models.*;
+import tv.noixion.troncli.grpc.BroadcastMode;
+import tv.noixion.troncli.grpc.FanOutBroadcaster;
 import tv.noixion.troncli.grpc.GrpcClient;
+import tv.noixion.troncli.grpc.HedgingPolicy;
+import tv.noixion.troncli.grpc.NodePool;
+import tv.noixion.troncli.grpc.RetryBudget;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
 import javafx.util.Pair;
@@ -17,13 +22,31 @@ import tv.noixion.troncli.models.*;
 import tv.noixion.troncli.utils.*;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Represents a org.tron client.
  */
 public class TronClient {
+    /**
+     * Max number of blocks returned by the nodes for a range of blocks.
+     */
+    public static final int MAX_BLOCK_RANGE = 100;
+
     private final List<GrpcClient> clients;
+    private final NodePool nodes;
+    private final FanOutBroadcaster broadcaster;
+    private final TronClientConfig config;
+    private final RetryBudget retryBudget;
     private boolean has_solidity_node;
+    private TronAsyncClient asyncClient;
+    private BlockFeed blockFeed;
+    private final BlockClock blockClock;
+    private volatile HedgingPolicy hedgingPolicy;
+    private final SingleFlight<Long, TronBlock> blockFlight;
+    private final SingleFlight<String, TronAccount> accountFlight;
+    private final SingleFlight<String, TronSmartContract> contractFlight;
 
     /**
      * Creates a new client for the Tron network.
@@ -32,14 +55,34 @@ public class TronClient {
      * @param solidityNode Solidity Node
      */
     public TronClient(TronNode fullNode, TronNode solidityNode) {
+        this(fullNode, solidityNode, TronClientConfig.defaults());
+    }
+
+    /**
+     * Creates a new client for the Tron network.
+     *
+     * @param fullNode     Full node
+     * @param solidityNode Solidity Node
+     * @param config       Client configuration (deadlines, channel tuning).
+     */
+    public TronClient(TronNode fullNode, TronNode solidityNode, TronClientConfig config) {
+        this.config = config;
+        this.blockFlight = new SingleFlight<>(config.isCoalesceReads());
+        this.accountFlight = new SingleFlight<>(config.isCoalesceReads());
+        this.contractFlight = new SingleFlight<>(config.isCoalesceReads());
+        this.blockClock = new BlockClock();
+        this.retryBudget = config.newRetryBudget();
         this.clients = new ArrayList<>();
         if (solidityNode == null) {
-            this.clients.add(new GrpcClient(fullNode.getHostname(), ""));
+            this.clients.add(new GrpcClient(fullNode.getHostname(), "", config, retryBudget));
             has_solidity_node = false;
         } else {
-            this.clients.add(new GrpcClient(fullNode.getHostname(), solidityNode.getHostname()));
+            this.clients.add(new GrpcClient(fullNode.getHostname(), solidityNode.getHostname(), config, retryBudget));
             has_solidity_node = true;
         }
+        this.nodes = new NodePool(clients);
+        this.broadcaster = new FanOutBroadcaster(nodes);
+        applyConfig();
     }
 
     /**
@@ -49,6 +92,23 @@ public class TronClient {
      * @param solidityNodes List of trusted solidity nodes.
      */
     public TronClient(List<TronNode> fullNodes, List<TronNode> solidityNodes) {
+        this(fullNodes, solidityNodes, TronClientConfig.defaults());
+    }
+
+    /**
+     * Creates a new client for the Tron network.
+     *
+     * @param fullNodes     List of trusted full nodes.
+     * @param solidityNodes List of trusted solidity nodes.
+     * @param config        Client configuration (deadlines, channel tuning).
+     */
+    public TronClient(List<TronNode> fullNodes, List<TronNode> solidityNodes, TronClientConfig config) {
+        this.config = config;
+        this.blockFlight = new SingleFlight<>(config.isCoalesceReads());
+        this.accountFlight = new SingleFlight<>(config.isCoalesceReads());
+        this.contractFlight = new SingleFlight<>(config.isCoalesceReads());
+        this.blockClock = new BlockClock();
+        this.retryBudget = config.newRetryBudget();
         this.clients = new ArrayList<>();
         int maxLength = Math.max(fullNodes.size(), solidityNodes.size());
         if (fullNodes.isEmpty()) {
@@ -67,8 +127,11 @@ public class TronClient {
                 has_solidity_node = true;
             }
             this.clients.add(new GrpcClient(fullNode.getHostname(),
-                    solidityNode == null ? "" : solidityNode.getHostname()));
+                    solidityNode == null ? "" : solidityNode.getHostname(), config, retryBudget));
         }
+        this.nodes = new NodePool(clients);
+        this.broadcaster = new FanOutBroadcaster(nodes);
+        applyConfig();
     }
 
     /**
@@ -80,6 +143,20 @@ public class TronClient {
         this(fullNode, null);
     }
 
+    private void applyConfig() {
+        this.hedgingPolicy = config.getHedgingPolicy();
+        if (config.getHealthProbePeriodMs() > 0) {
+            nodes.startHealthProbe(config.getHealthProbePeriodMs(), config.getHealthProbeMaxBlockLag());
+        }
+    }
+
+    /**
+     * @return The configuration of this client.
+     */
+    public TronClientConfig getConfig() {
+        return config;
+    }
+
     /**
      * Gets a block by its number.
      *
@@ -88,9 +165,16 @@ public class TronClient {
      * @throws GRPCException If an error occurs in the GRPC protocol, generally connection problems.
      */
     public TronBlock getBlock(long number) throws GRPCException {
+        if (hedgingPolicy != null) {
+            return await(async().getBlock(number));
+        }
+        return blockFlight.execute(number, () -> fetchBlock(number));
+    }
+
+    private TronBlock fetchBlock(long number) throws GRPCException {
         GrpcAPI.BlockExtention block = null;
         GRPCException exception = new GRPCException("Could not fetch block.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 block = client.getBlock2(number);
                 break;
@@ -106,6 +190,40 @@ public class TronClient {
         return new TronBlock(block);
     }
 
+    /**
+     * Gets a range of blocks, with one call to the node. The nodes return at most {@link #MAX_BLOCK_RANGE} blocks per call.
+     *
+     * @param start The number of the first block.
+     * @param end   The number of the block after the last one (exclusive).
+     * @return The blocks, in order. The list is shorter if the node does not have all the blocks yet.
+     * @throws GRPCException If an error occurs in the GRPC protocol, generally connection problems.
+     */
+    public List<TronBlock> getBlocks(long start, long end) throws GRPCException {
+        if (end - start > MAX_BLOCK_RANGE || end < start) {
+            throw new IllegalArgumentException("Invalid block range.");
+        }
+        Optional<GrpcAPI.BlockListExtention> blocks = null;
+        GRPCException exception = new GRPCException("Could not fetch blocks.");
+        for (GrpcClient client : nodes.candidates()) {
+            try {
+                blocks = client.getBlockByLimitNext2(start, end);
+                break;
+            } catch (Exception ex) {
+                exception = new GRPCException(ex.getMessage());
+            }
+        }
+
+        if (blocks == null || !blocks.isPresent()) {
+            throw exception;
+        }
+
+        List<TronBlock> result = new ArrayList<>(blocks.get().getBlockCount());
+        for (GrpcAPI.BlockExtention block : blocks.get().getBlockList()) {
+            result.add(new TronBlock(block));
+        }
+        return result;
+    }
+
     /**
      * Get block by its identifier / hash.
      *
@@ -116,7 +234,7 @@ public class TronClient {
     public TronBlock getBlock(HashIdentifier id) throws GRPCException {
         Optional<Protocol.Block> block = null;
         GRPCException exception = new GRPCException("Could not fetch block.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 block = client.getBlockById(id.toString());
                 break;
@@ -142,7 +260,7 @@ public class TronClient {
     public TronTransaction getTransaction(HashIdentifier id) throws GRPCException {
         Optional<Protocol.Transaction> tx = null;
         GRPCException exception = new GRPCException("Could not fetch transaction.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 tx = client.getTransactionById(id.toString());
                 break;
@@ -166,9 +284,12 @@ public class TronClient {
      * @throws GRPCException If an error occurs in the GRPC protocol, generally connection problems.
      */
     public TronTransactionInformation getTransactionInformation(HashIdentifier id) throws GRPCException {
+        if (hedgingPolicy != null) {
+            return await(async().getTransactionInformation(id));
+        }
         Optional<Protocol.TransactionInfo> tx = null;
         GRPCException exception = new GRPCException("Could not fetch transaction information.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 tx = client.getTransactionInfoById(id.toString());
                 break;
@@ -191,7 +312,9 @@ public class TronClient {
      * @throws GRPCException If an error occurs in the GRPC protocol, generally connection problems.
      */
     public TronBlock getLastBlock() throws GRPCException {
-        return this.getBlock(-1L);
+        TronBlock block = this.getBlock(-1L);
+        blockClock.onBlock(block);
+        return block;
     }
 
     /**
@@ -202,9 +325,16 @@ public class TronClient {
      * @throws GRPCException If an error occurs in the GRPC protocol, generally connection problems.
      */
     public TronAccount getAccountByAddress(TronAddress address) throws GRPCException {
+        if (hedgingPolicy != null) {
+            return await(async().getAccountByAddress(address));
+        }
+        return accountFlight.execute(address.toString(), () -> fetchAccount(address));
+    }
+
+    private TronAccount fetchAccount(TronAddress address) throws GRPCException {
         Protocol.Account account = null;
         GRPCException exception = new GRPCException("Could not fetch account information.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 account = client.queryAccount(address.getBytes());
                 break;
@@ -230,7 +360,7 @@ public class TronClient {
     public TronAccount getAccountByName(String name) throws GRPCException {
         Protocol.Account account = null;
         GRPCException exception = new GRPCException("Could not fetch account information.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 account = client.queryAccountById(name);
                 break;
@@ -256,7 +386,7 @@ public class TronClient {
     public TronAccountNet getAccountNet(TronAddress address) throws GRPCException {
         GrpcAPI.AccountNetMessage msg = null;
         GRPCException exception = new GRPCException("Could not fetch account network information.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 msg = client.getAccountNet(address.getBytes());
                 break;
@@ -282,7 +412,7 @@ public class TronClient {
     public TronAccountResource getAccountResources(TronAddress address) throws GRPCException {
         GrpcAPI.AccountResourceMessage msg = null;
         GRPCException exception = new GRPCException("Could not fetch account resource information.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 msg = client.getAccountResource(address.getBytes());
                 break;
@@ -308,7 +438,7 @@ public class TronClient {
     public TronAssetIssue getAssetIssueByName(String name) throws GRPCException {
         Contract.AssetIssueContract contract = null;
         GRPCException exception = new GRPCException("Could not fetch asset issue information.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 contract = client.getAssetIssueByName(name);
                 break;
@@ -334,7 +464,7 @@ public class TronClient {
     public List<TronAssetIssue> getAssetIssueByOwnerAddress(TronAddress address) throws GRPCException {
         Optional<GrpcAPI.AssetIssueList> list = null;
         GRPCException exception = new GRPCException("Could not fetch asset issue information.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 list = client.getAssetIssueByAccount(address.getBytes());
                 break;
@@ -365,7 +495,7 @@ public class TronClient {
     public List<TronAssetIssue> listAssetIssue() throws GRPCException {
         Optional<GrpcAPI.AssetIssueList> list = null;
         GRPCException exception = new GRPCException("Could not fetch asset issue information.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 list = client.getAssetIssueList();
                 break;
@@ -396,7 +526,7 @@ public class TronClient {
     public List<TronWitness> listWitnesses() throws GRPCException {
         Optional<GrpcAPI.WitnessList> list = null;
         GRPCException exception = new GRPCException("Could not fetch witnesses information.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 list = client.listWitnesses();
                 break;
@@ -427,7 +557,7 @@ public class TronClient {
     public List<TronNode> listNodes() throws GRPCException {
         Optional<GrpcAPI.NodeList> list = null;
         GRPCException exception = new GRPCException("Could not fetch nodes information.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 list = client.listNodes();
                 break;
@@ -459,7 +589,7 @@ public class TronClient {
     public TronProposal getProposalById(long id) throws GRPCException {
         Optional<Protocol.Proposal> p = null;
         GRPCException exception = new GRPCException("Could not fetch proposal information.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 p = client.getProposal("" + id);
                 break;
@@ -484,7 +614,7 @@ public class TronClient {
     public List<TronProposal> listProposals() throws GRPCException {
         Optional<GrpcAPI.ProposalList> list = null;
         GRPCException exception = new GRPCException("Could not fetch proposal information.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 list = client.listProposals();
                 break;
@@ -521,7 +651,7 @@ public class TronClient {
         }
         Optional<GrpcAPI.TransactionList> list = null;
         GRPCException exception = new GRPCException("Could not fetch transactions.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 list = client.getTransactionsFromThis(address.getBytes(), offset, limit);
                 break;
@@ -558,7 +688,7 @@ public class TronClient {
         }
         Optional<GrpcAPI.TransactionList> list = null;
         GRPCException exception = new GRPCException("Could not fetch transactions.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 list = client.getTransactionsToThis(address.getBytes(), offset, limit);
                 break;
@@ -588,9 +718,16 @@ public class TronClient {
      * @throws GRPCException If an error occurs in the GRPC protocol, generally connection problems.
      */
     public TronSmartContract getContract(TronAddress address) throws GRPCException {
+        if (hedgingPolicy != null) {
+            return await(async().getContract(address));
+        }
+        return contractFlight.execute(address.toString(), () -> fetchContract(address));
+    }
+
+    private TronSmartContract fetchContract(TronAddress address) throws GRPCException {
         Protocol.SmartContract c = null;
         GRPCException exception = new GRPCException("Could not fetch contract information.");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 c = client.getContract(address.getBytes());
                 break;
@@ -620,10 +757,10 @@ public class TronClient {
                 owner.getAddress().getBytes(), amount.getSUN());
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createTransaction2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -650,10 +787,10 @@ public class TronClient {
         Contract.TransferAssetContract contract = TronContracts.createTransferAssetContract(receiver.getBytes(),
                 assetName.getBytes(), owner.getAddress().getBytes(), amount);
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createTransferAssetTransaction2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -681,10 +818,10 @@ public class TronClient {
                 .participateAssetIssueContract(receiver.getBytes(),
                         assetName.getBytes(), owner.getAddress().getBytes(), amount);
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createParticipateAssetIssueTransaction2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -712,10 +849,10 @@ public class TronClient {
                 TronContracts.createFreezeBalanceContract(owner.getAddress().getBytes(),
                         amount.getSUN(), durationDays, resource.getCode());
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createTransaction2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -739,10 +876,10 @@ public class TronClient {
         Contract.VoteWitnessContract contract = TronContracts.createVoteWitnessContract(owner.getAddress().getBytes(), votes);
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.voteWitnessAccount2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -768,10 +905,10 @@ public class TronClient {
                 .createUnfreezeBalanceContract(owner.getAddress().getBytes(), resource.getCode());
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createTransaction2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -893,10 +1030,10 @@ public class TronClient {
 
         Contract.AssetIssueContract contract = builder.build();
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createAssetIssue2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -925,10 +1062,10 @@ public class TronClient {
                 description.getBytes(), url.getBytes(), freeNetLimitPerAccount, publicNetLimit);
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createTransaction2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -952,10 +1089,10 @@ public class TronClient {
                 .createUnfreezeAssetContract(owner.getAddress().getBytes());
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createTransaction2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -981,10 +1118,10 @@ public class TronClient {
                 .createAccountCreateContract(owner.getAddress().getBytes(), newAccount.getBytes());
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createAccount2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -1008,10 +1145,10 @@ public class TronClient {
         Contract.AccountUpdateContract contract = TronContracts.createAccountUpdateContract(name.getBytes(), owner.getAddress().getBytes());
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createTransaction2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -1035,7 +1172,7 @@ public class TronClient {
         Contract.SetAccountIdContract contract = TronContracts.createSetAccountIdContract(id.getBytes(), owner.getAddress().getBytes());
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 Protocol.Transaction ex = client.createTransaction(contract);
                 return TransactionUtils.processTransaction(client, ex, owner.getPrivateKey());
@@ -1062,10 +1199,10 @@ public class TronClient {
                 .createWithdrawBalanceContract(owner.getAddress().getBytes());
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createTransaction2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -1090,10 +1227,10 @@ public class TronClient {
                 .createWitnessCreateContract(owner.getAddress().getBytes(), url.getBytes());
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createWitness2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -1118,10 +1255,10 @@ public class TronClient {
                 .createWitnessUpdateContract(owner.getAddress().getBytes(), url.getBytes());
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.updateWitness2(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -1146,10 +1283,10 @@ public class TronClient {
                 .createProposalCreateContract(owner.getAddress().getBytes(), params);
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.proposalCreate(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -1175,10 +1312,10 @@ public class TronClient {
                 .createProposalApproveContract(owner.getAddress().getBytes(), id, add_approval);
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.proposalApprove(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -1203,10 +1340,10 @@ public class TronClient {
                 .createProposalDeleteContract(owner.getAddress().getBytes(), id);
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.proposalDelete(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -1231,10 +1368,10 @@ public class TronClient {
                 .createBuyStorageContract(owner.getAddress().getBytes(), quantity);
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createTransaction(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -1259,10 +1396,10 @@ public class TronClient {
                 .createSellStorageContract(owner.getAddress().getBytes(), quantity);
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.createTransaction(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -1352,9 +1489,10 @@ public class TronClient {
         GrpcAPI.TransactionExtention transactionExtention = null;
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 transactionExtention = client.deployContract(contractDeployContract);
+                break;
             } catch (Exception ex) {
                 exception = new GRPCException(ex.getMessage());
             }
@@ -1374,32 +1512,15 @@ public class TronClient {
             }
         }
 
-        GrpcAPI.TransactionExtention.Builder texBuilder = GrpcAPI.TransactionExtention.newBuilder();
-        Protocol.Transaction.Builder transBuilder = Protocol.Transaction.newBuilder();
-        Protocol.Transaction.raw.Builder rawBuilder = transactionExtention.getTransaction().getRawData()
-                .toBuilder();
-        rawBuilder.setFeeLimit(feeLimit.getSUN());
-        transBuilder.setRawData(rawBuilder);
-        for (int i = 0; i < transactionExtention.getTransaction().getSignatureCount(); i++) {
-            ByteString s = transactionExtention.getTransaction().getSignature(i);
-            transBuilder.setSignature(i, s);
-        }
-        for (int i = 0; i < transactionExtention.getTransaction().getRetCount(); i++) {
-            Protocol.Transaction.Result r = transactionExtention.getTransaction().getRet(i);
-            transBuilder.setRet(i, r);
-        }
-        texBuilder.setTransaction(transBuilder);
-        texBuilder.setResult(transactionExtention.getResult());
-        texBuilder.setTxid(transactionExtention.getTxid());
-        transactionExtention = texBuilder.build();
+        transactionExtention = TransactionUtils.setFeeLimit(transactionExtention, feeLimit.getSUN());
 
         byte[] contractAddress = TronSmartContracts.generateContractAddress(owner.getAddress().getBytes(),
                 transactionExtention.getTransaction());
         TronTransaction tx;
 
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
-                tx = TransactionUtils.processTransactionExtention(client, transactionExtention, owner.getPrivateKey());
+                tx = signAndBroadcast(client, transactionExtention, owner.getPrivateKey());
                 return new Pair<>(tx, new TronAddress(contractAddress));
             } catch (TransactionException ex) {
                 throw ex;
@@ -1465,9 +1586,10 @@ public class TronClient {
         GrpcAPI.TransactionExtention transactionExtention = null;
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 transactionExtention = client.triggerContract(triggerContract);
+                break;
             } catch (Exception ex) {
                 exception = new GRPCException(ex.getMessage());
             }
@@ -1477,43 +1599,24 @@ public class TronClient {
             throw exception;
         }
 
-        if (transactionExtention == null || !transactionExtention.getResult().getResult()) {
+        if (!transactionExtention.getResult().getResult()) {
             throw new TransactionException(transactionExtention.getResult().getCode(),
                     transactionExtention.getResult().getMessage().toStringUtf8());
         }
 
-        Protocol.Transaction transaction = transactionExtention.getTransaction();
-        if (transaction.getRetCount() != 0 &&
-                transactionExtention.getConstantResult(0) != null &&
-                transactionExtention.getResult() != null) {
+        if (transactionExtention.getTransaction().getRetCount() != 0
+                && transactionExtention.getConstantResultCount() > 0) {
             byte[] result = transactionExtention.getConstantResult(0).toByteArray();
             return new TriggerContractResult(result);
         }
 
-        GrpcAPI.TransactionExtention.Builder texBuilder = GrpcAPI.TransactionExtention.newBuilder();
-        Protocol.Transaction.Builder transBuilder = Protocol.Transaction.newBuilder();
-        Protocol.Transaction.raw.Builder rawBuilder = transactionExtention.getTransaction().getRawData()
-                .toBuilder();
-        rawBuilder.setFeeLimit(feeLimit.getSUN());
-        transBuilder.setRawData(rawBuilder);
-        for (int i = 0; i < transactionExtention.getTransaction().getSignatureCount(); i++) {
-            ByteString s = transactionExtention.getTransaction().getSignature(i);
-            transBuilder.setSignature(i, s);
-        }
-        for (int i = 0; i < transactionExtention.getTransaction().getRetCount(); i++) {
-            Protocol.Transaction.Result r = transactionExtention.getTransaction().getRet(i);
-            transBuilder.setRet(i, r);
-        }
-        texBuilder.setTransaction(transBuilder);
-        texBuilder.setResult(transactionExtention.getResult());
-        texBuilder.setTxid(transactionExtention.getTxid());
-        transactionExtention = texBuilder.build();
+        transactionExtention = TransactionUtils.setFeeLimit(transactionExtention, feeLimit.getSUN());
 
         TronTransaction tx;
 
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
-                tx = TransactionUtils.processTransactionExtention(client, transactionExtention, owner.getPrivateKey());
+                tx = signAndBroadcast(client, transactionExtention, owner.getPrivateKey());
                 return new TriggerContractResult(tx);
             } catch (TransactionException ex) {
                 throw ex;
@@ -1525,6 +1628,52 @@ public class TronClient {
         throw exception;
     }
 
+    /**
+     * Calls a constant (view or pure) method of a smart contract. The call is executed by one node
+     * and nothing is signed or broadcasted.
+     *
+     * @param caller          The address used as the sender of the call.
+     * @param contractAddress The address of the smart contract.
+     * @param call            The smart contract method call.
+     * @return The call result.
+     * @throws GRPCException        If an error occurs in the GRPC protocol, generally connection problems.
+     * @throws TransactionException If the call fails or the method is not constant.
+     * @throws EncodingException    If the method call is invalid.
+     */
+    public TriggerContractResult callConstantContract(TronAddress caller,
+                                                      TronAddress contractAddress,
+                                                      TriggerContractDataBuilder call)
+            throws GRPCException, TransactionException, EncodingException {
+        Contract.TriggerSmartContract triggerContract = TronContracts.triggerCallContract(caller.getBytes(),
+                contractAddress.getBytes(), 0, 0, 0, call.build());
+        GrpcAPI.TransactionExtention transactionExtention = null;
+
+        GRPCException exception = new GRPCException("Could not perform the action");
+        for (GrpcClient client : nodes.candidates()) {
+            try {
+                transactionExtention = client.triggerContract(triggerContract);
+                break;
+            } catch (Exception ex) {
+                exception = new GRPCException(ex.getMessage());
+            }
+        }
+
+        if (transactionExtention == null) {
+            throw exception;
+        }
+
+        if (!transactionExtention.getResult().getResult()) {
+            throw new TransactionException(transactionExtention.getResult().getCode(),
+                    transactionExtention.getResult().getMessage().toStringUtf8());
+        }
+
+        if (transactionExtention.getConstantResultCount() == 0) {
+            throw new TransactionException(null, "The method is not constant.");
+        }
+
+        return new TriggerContractResult(transactionExtention.getConstantResult(0).toByteArray());
+    }
+
     /**
      * Updates the settings of a smart contract.
      *
@@ -1543,10 +1692,10 @@ public class TronClient {
                         contractAddress.getBytes(), consumeUserResourcePercent);
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.updateSetting(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -1576,10 +1725,10 @@ public class TronClient {
                 .setOriginEnergyLimit(originEnergyLimit).build();
 
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 GrpcAPI.TransactionExtention ex = client.updateEnergyLimit(contract);
-                return TransactionUtils.processTransactionExtention(client, ex, owner.getPrivateKey());
+                return signAndBroadcast(client, ex, owner.getPrivateKey());
             } catch (TransactionException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -1605,14 +1754,22 @@ public class TronClient {
             throws GRPCException, InterruptedException, ConfirmationTimeoutException {
         int retries = 0;
 
+        if (!blockClock.hasBlocks()) {
+            try {
+                this.getLastBlock();
+            } catch (GRPCException ex) {
+                // The default block interval is used
+            }
+        }
+
         while (retries < maxRetries) {
             TronTransactionInformation txInfo = this.getTransactionInformation(txId);
 
             if (txInfo.getBlockNumber() > 0) {
                 return txInfo;
             } else {
-                // Not confirmed yet, wait for netct block
-                Thread.sleep(3 * 1000);
+                // Not confirmed yet, wait for the moment the next block should be available
+                Thread.sleep(blockClock.getNextBlockDelayMs());
                 retries++;
             }
         }
@@ -1637,7 +1794,11 @@ public class TronClient {
         }
         Protocol.Transaction tx = txBuilder.build();
         GRPCException exception = new GRPCException("Could not perform the action");
-        for (GrpcClient client : clients) {
+        if (config.getBroadcastMode() == BroadcastMode.FAN_OUT) {
+            broadcaster.broadcast(tx);
+            return;
+        }
+        for (GrpcClient client : nodes.candidates()) {
             try {
                 client.broadcastTransaction(tx);
                 return;
@@ -1655,9 +1816,9 @@ public class TronClient {
         List<ChainParameter> result = new ArrayList<>();
         GRPCException exception = new GRPCException("Could not perform the action");
         Protocol.ChainParameters params = null;
-        for (GrpcClient client : clients) {
+        for (GrpcClient client : nodes.candidates()) {
             try {
-                params = this.clients.get(0).getChainParameters().get();
+                params = client.getChainParameters().get();
                 break;
             } catch (Exception ex) {
                 exception = new GRPCException(ex.getMessage());
@@ -1676,10 +1837,146 @@ public class TronClient {
         throw exception;
     }
 
+    /**
+     * Gets the asynchronous view of this client. It shares the nodes and connections with this client.
+     *
+     * @return The asynchronous client.
+     */
+    public synchronized TronAsyncClient async() {
+        if (asyncClient == null) {
+            asyncClient = new TronAsyncClient(this);
+        }
+        return asyncClient;
+    }
+
+    /**
+     * @return true if every node of the client reads from a solidity node, so all the blocks it gets
+     * are solidified.
+     */
+    public boolean hasSolidityNode() {
+        for (GrpcClient client : clients) {
+            if (!client.hasSolidityNode()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the block feed of this client. Subscribing handlers to the feed instead of creating a watcher for
+     * each one fetches the blocks and the information of their transactions once for all of them.
+     *
+     * @return The block feed.
+     */
+    public synchronized BlockFeed getBlockFeed() {
+        if (blockFeed == null) {
+            blockFeed = new BlockFeed(this);
+        }
+        return blockFeed;
+    }
+
+    /**
+     * Enables or disables hedged reads for getBlock(number), getTransactionInformation, getAccountByAddress
+     * and getContract. When enabled, if the selected node does not answer within the delay of the policy,
+     * the request is also sent to a second node and the first answer is used.
+     *
+     * @param hedgingPolicy The hedging policy, null to disable hedging.
+     */
+    public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+    }
+
+    /**
+     * @return The hedging policy, null if hedging is disabled.
+     */
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    SingleFlight<Long, TronBlock> getBlockFlight() {
+        return blockFlight;
+    }
+
+    SingleFlight<String, TronAccount> getAccountFlight() {
+        return accountFlight;
+    }
+
+    SingleFlight<String, TronSmartContract> getContractFlight() {
+        return contractFlight;
+    }
+
+    /**
+     * @return The retry budget shared by all the nodes of this client.
+     */
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    /**
+     * @return The pool of nodes used by this client, with their statistics.
+     */
+    public NodePool getNodePool() {
+        return nodes;
+    }
+
+    /**
+     * Starts a background health probe of the nodes. Every period, all the nodes are asked for their head block.
+     * Nodes failing to answer or lagging behind the best node are removed from the rotation
+     * until a later probe finds them healthy again.
+     *
+     * @param periodMs    Time between probes (milliseconds).
+     * @param maxBlockLag Max number of blocks a node can lag behind the best node.
+     */
+    public void startHealthProbe(long periodMs, long maxBlockLag) {
+        nodes.startHealthProbe(periodMs, maxBlockLag);
+    }
+
+    /**
+     * Stops the background health probe.
+     */
+    public void stopHealthProbe() {
+        nodes.stopHealthProbe();
+    }
+
+    FanOutBroadcaster getBroadcaster() {
+        return broadcaster;
+    }
+
+    /**
+     * Signs a transaction and broadcasts it, to the node which created it or to all the nodes (fan-out mode).
+     */
+    private TronTransaction signAndBroadcast(GrpcClient client, GrpcAPI.TransactionExtention transactionExtention,
+                                             TronPrivateKey privateKey) throws GRPCException, TransactionException {
+        if (config.getBroadcastMode() == BroadcastMode.FAN_OUT) {
+            Protocol.Transaction transaction = TransactionUtils.prepareTransactionExtention(transactionExtention, privateKey);
+            return new TronTransaction(broadcaster.broadcast(transaction));
+        }
+        return TransactionUtils.processTransactionExtention(client, transactionExtention, privateKey);
+    }
+
+    /**
+     * Waits for the result of an asynchronous call.
+     */
+    private <T> T await(CompletableFuture<T> future) throws GRPCException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new GRPCException("Interrupted while waiting for the node.");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof GRPCException) {
+                throw (GRPCException) ex.getCause();
+            }
+            throw new GRPCException(ex.getCause().getMessage());
+        }
+    }
+
     /**
      * Closes all connections.
      */
     public void shutdown() {
+        nodes.stopHealthProbe();
         for (GrpcClient client : clients) {
             try {
                 client.shutdown();
@@ -0,0 +1,517 @@
+package tv.noixion.troncli;
+
+import io.grpc.okhttp.OkHttpChannelBuilder;
+import tv.noixion.troncli.grpc.BroadcastMode;
+import tv.noixion.troncli.grpc.ChannelPool;
+import tv.noixion.troncli.grpc.CircuitBreaker;
+import tv.noixion.troncli.grpc.HedgingPolicy;
+import tv.noixion.troncli.grpc.RetryBudget;
+import tv.noixion.troncli.grpc.RetryPolicy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Configuration of a Tron client: call deadlines, channel tuning and failure detection.
+ * Use {@link #builder()} to create one. The default configuration keeps the behaviour of
+ * a client created without configuration (no deadlines, no keepalive, default gRPC limits).
+ */
+public class TronClientConfig {
+    public static final int DEFAULT_MAX_INBOUND_MESSAGE_SIZE = 4 * 1024 * 1024;
+
+    private final long defaultDeadlineMs;
+    private final Map<String, Long> methodDeadlinesMs;
+    private final long keepAliveTimeMs;
+    private final long keepAliveTimeoutMs;
+    private final boolean keepAliveWithoutCalls;
+    private final long idleTimeoutMs;
+    private final int maxInboundMessageSize;
+    private final int flowControlWindow;
+    private final Executor executor;
+    private final int channelsPerNode;
+    private final ChannelPool.Selection channelSelection;
+    private final int circuitBreakerFailureThreshold;
+    private final long circuitBreakerOpenDurationMs;
+    private final HedgingPolicy hedgingPolicy;
+    private final long healthProbePeriodMs;
+    private final long healthProbeMaxBlockLag;
+    private final boolean coalesceReads;
+    private final BroadcastMode broadcastMode;
+    private final RetryPolicy retryPolicy;
+    private final int retryBudgetMaxTokens;
+    private final double retryBudgetTokenRatio;
+
+    private TronClientConfig(Builder builder) {
+        this.defaultDeadlineMs = builder.defaultDeadlineMs;
+        this.methodDeadlinesMs = Collections.unmodifiableMap(new HashMap<>(builder.methodDeadlinesMs));
+        this.keepAliveTimeMs = builder.keepAliveTimeMs;
+        this.keepAliveTimeoutMs = builder.keepAliveTimeoutMs;
+        this.keepAliveWithoutCalls = builder.keepAliveWithoutCalls;
+        this.idleTimeoutMs = builder.idleTimeoutMs;
+        this.maxInboundMessageSize = builder.maxInboundMessageSize;
+        this.flowControlWindow = builder.flowControlWindow;
+        this.executor = builder.executor;
+        this.channelsPerNode = builder.channelsPerNode;
+        this.channelSelection = builder.channelSelection;
+        this.circuitBreakerFailureThreshold = builder.circuitBreakerFailureThreshold;
+        this.circuitBreakerOpenDurationMs = builder.circuitBreakerOpenDurationMs;
+        this.hedgingPolicy = builder.hedgingPolicy;
+        this.healthProbePeriodMs = builder.healthProbePeriodMs;
+        this.healthProbeMaxBlockLag = builder.healthProbeMaxBlockLag;
+        this.coalesceReads = builder.coalesceReads;
+        this.broadcastMode = builder.broadcastMode;
+        this.retryPolicy = builder.retryPolicy;
+        this.retryBudgetMaxTokens = builder.retryBudgetMaxTokens;
+        this.retryBudgetTokenRatio = builder.retryBudgetTokenRatio;
+    }
+
+    /**
+     * @return A new builder, with the default configuration.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return The default configuration.
+     */
+    public static TronClientConfig defaults() {
+        return new Builder().build();
+    }
+
+    /**
+     * Gets the deadline of the calls to a gRPC method.
+     *
+     * @param fullMethodName The full method name, for example "protocol.Wallet/GetNowBlock2".
+     * @return The deadline (milliseconds), 0 if the calls have no deadline.
+     */
+    public long getDeadlineMs(String fullMethodName) {
+        Long deadline = methodDeadlinesMs.get(fullMethodName);
+        if (deadline == null) {
+            int index = fullMethodName.lastIndexOf('/');
+            deadline = methodDeadlinesMs.get(index < 0 ? fullMethodName : fullMethodName.substring(index + 1));
+        }
+        return deadline == null ? defaultDeadlineMs : deadline;
+    }
+
+    /**
+     * @return The deadline of the methods without a specific deadline (milliseconds), 0 for no deadline.
+     */
+    public long getDefaultDeadlineMs() {
+        return defaultDeadlineMs;
+    }
+
+    /**
+     * @return The deadlines by method name (milliseconds).
+     */
+    public Map<String, Long> getMethodDeadlinesMs() {
+        return methodDeadlinesMs;
+    }
+
+    /**
+     * @return true if a deadline is configured for any method.
+     */
+    public boolean hasDeadlines() {
+        return defaultDeadlineMs > 0 || !methodDeadlinesMs.isEmpty();
+    }
+
+    /**
+     * @return Time without reads before sending a keepalive ping (milliseconds), 0 if keepalive is disabled.
+     */
+    public long getKeepAliveTimeMs() {
+        return keepAliveTimeMs;
+    }
+
+    /**
+     * @return Time to wait for the keepalive ping ack before closing the connection (milliseconds).
+     */
+    public long getKeepAliveTimeoutMs() {
+        return keepAliveTimeoutMs;
+    }
+
+    /**
+     * @return true if keepalive pings are sent when there are no calls in progress.
+     */
+    public boolean isKeepAliveWithoutCalls() {
+        return keepAliveWithoutCalls;
+    }
+
+    /**
+     * @return Time without calls before the channel becomes idle (milliseconds), 0 for the gRPC default.
+     */
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    /**
+     * @return The max size of a received message (bytes).
+     */
+    public int getMaxInboundMessageSize() {
+        return maxInboundMessageSize;
+    }
+
+    /**
+     * @return The HTTP/2 flow control window (bytes).
+     */
+    public int getFlowControlWindow() {
+        return flowControlWindow;
+    }
+
+    /**
+     * @return The executor of the gRPC callbacks, null for the gRPC default.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @return The number of channels (connections) to each node.
+     */
+    public int getChannelsPerNode() {
+        return channelsPerNode;
+    }
+
+    /**
+     * @return The selection of the channel for each call.
+     */
+    public ChannelPool.Selection getChannelSelection() {
+        return channelSelection;
+    }
+
+    /**
+     * @return Number of consecutive failures to remove a node from the rotation.
+     */
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    /**
+     * @return Time a failing node stays out of the rotation before a trial call (milliseconds).
+     */
+    public long getCircuitBreakerOpenDurationMs() {
+        return circuitBreakerOpenDurationMs;
+    }
+
+    /**
+     * @return The hedging policy, null if hedging is disabled.
+     */
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    /**
+     * @return Time between health probes (milliseconds), 0 if the health probe is disabled.
+     */
+    public long getHealthProbePeriodMs() {
+        return healthProbePeriodMs;
+    }
+
+    /**
+     * @return Max number of blocks a node can lag behind the best node.
+     */
+    public long getHealthProbeMaxBlockLag() {
+        return healthProbeMaxBlockLag;
+    }
+
+    /**
+     * @return true if identical concurrent reads (blocks, accounts, contracts) share one call.
+     */
+    public boolean isCoalesceReads() {
+        return coalesceReads;
+    }
+
+    /**
+     * @return How signed transactions are broadcasted.
+     */
+    public BroadcastMode getBroadcastMode() {
+        return broadcastMode;
+    }
+
+    /**
+     * @return The policy for retrying the calls to a node.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * @return Number of tokens of the retry budgets.
+     */
+    public int getRetryBudgetMaxTokens() {
+        return retryBudgetMaxTokens;
+    }
+
+    /**
+     * @return Tokens given back to the retry budgets by each successful call.
+     */
+    public double getRetryBudgetTokenRatio() {
+        return retryBudgetTokenRatio;
+    }
+
+    /**
+     * @return A new retry budget with the configured settings.
+     */
+    public RetryBudget newRetryBudget() {
+        return new RetryBudget(retryBudgetMaxTokens, retryBudgetTokenRatio);
+    }
+
+    /**
+     * Builder of client configurations.
+     */
+    public static class Builder {
+        private long defaultDeadlineMs = 0;
+        private final Map<String, Long> methodDeadlinesMs = new HashMap<>();
+        private long keepAliveTimeMs = 0;
+        private long keepAliveTimeoutMs = 20 * 1000;
+        private boolean keepAliveWithoutCalls = false;
+        private long idleTimeoutMs = 0;
+        private int maxInboundMessageSize = DEFAULT_MAX_INBOUND_MESSAGE_SIZE;
+        private int flowControlWindow = OkHttpChannelBuilder.DEFAULT_FLOW_CONTROL_WINDOW;
+        private Executor executor = null;
+        private int channelsPerNode = 1;
+        private ChannelPool.Selection channelSelection = ChannelPool.Selection.ROUND_ROBIN;
+        private int circuitBreakerFailureThreshold = CircuitBreaker.DEFAULT_FAILURE_THRESHOLD;
+        private long circuitBreakerOpenDurationMs = CircuitBreaker.DEFAULT_OPEN_DURATION_MS;
+        private HedgingPolicy hedgingPolicy = null;
+        private long healthProbePeriodMs = 0;
+        private long healthProbeMaxBlockLag = 0;
+        private boolean coalesceReads = true;
+        private BroadcastMode broadcastMode = BroadcastMode.SEQUENTIAL;
+        private RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+        private int retryBudgetMaxTokens = RetryBudget.DEFAULT_MAX_TOKENS;
+        private double retryBudgetTokenRatio = RetryBudget.DEFAULT_TOKEN_RATIO;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the deadline of the calls to methods without a specific deadline.
+         *
+         * @param deadlineMs The deadline (milliseconds), 0 for no deadline.
+         * @return This builder.
+         */
+        public Builder defaultDeadline(long deadlineMs) {
+            if (deadlineMs < 0) {
+                throw new IllegalArgumentException("The deadline cannot be negative.");
+            }
+            this.defaultDeadlineMs = deadlineMs;
+            return this;
+        }
+
+        /**
+         * Sets the deadline of the calls to a gRPC method.
+         *
+         * @param methodName The method name ("GetNowBlock2") or full method name ("protocol.Wallet/GetNowBlock2").
+         * @param deadlineMs The deadline (milliseconds), 0 for no deadline.
+         * @return This builder.
+         */
+        public Builder methodDeadline(String methodName, long deadlineMs) {
+            if (deadlineMs < 0) {
+                throw new IllegalArgumentException("The deadline cannot be negative.");
+            }
+            this.methodDeadlinesMs.put(methodName, deadlineMs);
+            return this;
+        }
+
+        /**
+         * Enables keepalive pings, to detect broken connections.
+         *
+         * @param keepAliveTimeMs    Time without reads before sending a ping (milliseconds), 0 to disable keepalive.
+         * @param keepAliveTimeoutMs Time to wait for the ping ack before closing the connection (milliseconds).
+         * @return This builder.
+         */
+        public Builder keepAlive(long keepAliveTimeMs, long keepAliveTimeoutMs) {
+            if (keepAliveTimeMs < 0 || keepAliveTimeoutMs <= 0) {
+                throw new IllegalArgumentException("Invalid keepalive time.");
+            }
+            this.keepAliveTimeMs = keepAliveTimeMs;
+            this.keepAliveTimeoutMs = keepAliveTimeoutMs;
+            return this;
+        }
+
+        /**
+         * Sets if keepalive pings are sent when there are no calls in progress.
+         *
+         * @param keepAliveWithoutCalls true to send pings without calls.
+         * @return This builder.
+         */
+        public Builder keepAliveWithoutCalls(boolean keepAliveWithoutCalls) {
+            this.keepAliveWithoutCalls = keepAliveWithoutCalls;
+            return this;
+        }
+
+        /**
+         * Sets the time without calls before the channel becomes idle and closes its connection.
+         *
+         * @param idleTimeoutMs The idle timeout (milliseconds), 0 for the gRPC default.
+         * @return This builder.
+         */
+        public Builder idleTimeout(long idleTimeoutMs) {
+            if (idleTimeoutMs < 0) {
+                throw new IllegalArgumentException("The idle timeout cannot be negative.");
+            }
+            this.idleTimeoutMs = idleTimeoutMs;
+            return this;
+        }
+
+        /**
+         * Sets the max size of a received message. Increase it for large block lists.
+         *
+         * @param maxInboundMessageSize The max size (bytes).
+         * @return This builder.
+         */
+        public Builder maxInboundMessageSize(int maxInboundMessageSize) {
+            if (maxInboundMessageSize <= 0) {
+                throw new IllegalArgumentException("The max message size must be positive.");
+            }
+            this.maxInboundMessageSize = maxInboundMessageSize;
+            return this;
+        }
+
+        /**
+         * Sets the HTTP/2 flow control window.
+         *
+         * @param flowControlWindow The window (bytes).
+         * @return This builder.
+         */
+        public Builder flowControlWindow(int flowControlWindow) {
+            if (flowControlWindow <= 0) {
+                throw new IllegalArgumentException("The flow control window must be positive.");
+            }
+            this.flowControlWindow = flowControlWindow;
+            return this;
+        }
+
+        /**
+         * Sets the executor running the gRPC callbacks (and the asynchronous client callbacks).
+         *
+         * @param executor The executor, null for the gRPC default.
+         * @return This builder.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the number of channels (HTTP/2 connections) to each node.
+         * With more than one channel, the concurrent calls to a node are spread across the connections.
+         *
+         * @param channelsPerNode The number of channels.
+         * @param selection       The selection of the channel for each call.
+         * @return This builder.
+         */
+        public Builder channelsPerNode(int channelsPerNode, ChannelPool.Selection selection) {
+            if (channelsPerNode <= 0) {
+                throw new IllegalArgumentException("At least one channel is required.");
+            }
+            this.channelsPerNode = channelsPerNode;
+            this.channelSelection = selection;
+            return this;
+        }
+
+        /**
+         * Sets the circuit breaker of the nodes.
+         *
+         * @param failureThreshold Number of consecutive failures to remove a node from the rotation.
+         * @param openDurationMs   Time a failing node stays out of the rotation before a trial call (milliseconds).
+         * @return This builder.
+         */
+        public Builder circuitBreaker(int failureThreshold, long openDurationMs) {
+            if (failureThreshold <= 0 || openDurationMs < 0) {
+                throw new IllegalArgumentException("Invalid circuit breaker settings.");
+            }
+            this.circuitBreakerFailureThreshold = failureThreshold;
+            this.circuitBreakerOpenDurationMs = openDurationMs;
+            return this;
+        }
+
+        /**
+         * Sets the hedging policy for reads.
+         *
+         * @param hedgingPolicy The policy, null to disable hedging.
+         * @return This builder.
+         */
+        public Builder hedgingPolicy(HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * Enables the background health probe of the nodes.
+         *
+         * @param periodMs    Time between probes (milliseconds), 0 to disable the probe.
+         * @param maxBlockLag Max number of blocks a node can lag behind the best node.
+         * @return This builder.
+         */
+        public Builder healthProbe(long periodMs, long maxBlockLag) {
+            if (periodMs < 0 || maxBlockLag < 0) {
+                throw new IllegalArgumentException("Invalid health probe settings.");
+            }
+            this.healthProbePeriodMs = periodMs;
+            this.healthProbeMaxBlockLag = maxBlockLag;
+            return this;
+        }
+
+        /**
+         * Sets if identical concurrent reads of blocks, accounts and contracts share one call and one result.
+         *
+         * @param coalesceReads true to coalesce the reads.
+         * @return This builder.
+         */
+        public Builder coalesceReads(boolean coalesceReads) {
+            this.coalesceReads = coalesceReads;
+            return this;
+        }
+
+        /**
+         * Sets how signed transactions are broadcasted. With {@link BroadcastMode#FAN_OUT}, they are sent
+         * to all the full nodes at the same time, and the broadcast returns when the first node accepts them.
+         *
+         * @param broadcastMode The broadcast mode.
+         * @return This builder.
+         */
+        public Builder broadcastMode(BroadcastMode broadcastMode) {
+            this.broadcastMode = broadcastMode;
+            return this;
+        }
+
+        /**
+         * Sets the policy for retrying the calls to a node (backoff, jitter, retryable statuses and response codes).
+         *
+         * @param retryPolicy The retry policy, {@link RetryPolicy#NONE} to disable retries.
+         * @return This builder.
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the retry budgets, of each node and of the whole client. Each retryable failure takes
+         * one token, each successful call gives back a fraction of a token, and retries are only
+         * allowed while more than half of the tokens are left.
+         *
+         * @param maxTokens  Number of tokens.
+         * @param tokenRatio Tokens given back by each successful call.
+         * @return This builder.
+         */
+        public Builder retryBudget(int maxTokens, double tokenRatio) {
+            if (maxTokens <= 0 || tokenRatio <= 0) {
+                throw new IllegalArgumentException("Invalid retry budget.");
+            }
+            this.retryBudgetMaxTokens = maxTokens;
+            this.retryBudgetTokenRatio = tokenRatio;
+            return this;
+        }
+
+        /**
+         * @return The configuration.
+         */
+        public TronClientConfig build() {
+            return new TronClientConfig(this);
+        }
+    }
+}
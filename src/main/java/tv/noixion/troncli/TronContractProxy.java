@@ -85,4 +85,19 @@ public abstract class TronContractProxy extends SmartContractEventListener {
         return this.client.triggerSmartContract(sender, this.contractAddress, call, feeLimit,
                 callValue, callValueTokenId, callValueToken);
     }
+
+    /**
+     * Calls a constant (view or pure) method of the smart contract, without signing or broadcasting a transaction.
+     *
+     * @param caller The address used as the sender of the call.
+     * @param call   The method call.
+     * @return The call result.
+     * @throws GRPCException        If an error occurs in the GRPC protocol, generally connection problems.
+     * @throws TransactionException If the call fails or the method is not constant.
+     * @throws EncodingException    If the method call is invalid.
+     */
+    public TriggerContractResult callConstantMethod(TronAddress caller, TriggerContractDataBuilder call)
+            throws GRPCException, TransactionException, EncodingException {
+        return this.client.callConstantContract(caller, this.contractAddress, call);
+    }
 }
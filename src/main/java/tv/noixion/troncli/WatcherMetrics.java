@@ -0,0 +1,201 @@
+package tv.noixion.troncli;
+
+import tv.noixion.troncli.utils.TronEventHandler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of a block chain watcher: head lag, throughput, transaction information latency,
+ * time spent in the handlers and failures. It can be registered as a JMX MBean by the watcher.
+ */
+public class WatcherMetrics implements WatcherMetricsListener, WatcherMetricsMBean {
+    /**
+     * Upper bounds of the buckets of the latency histogram (milliseconds).
+     */
+    public static final long[] LATENCY_BUCKETS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private static final long RATE_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final AtomicLong headLag;
+    private final AtomicLong lastBlock;
+    private final LongAdder blocks;
+    private final LongAdder transactions;
+    private final AtomicLongArray latencyBuckets;
+    private final LongAdder lookups;
+    private final LongAdder lookupNanos;
+    private final LongAdder rpcFailures;
+    private final LongAdder handlerFailures;
+    private final Map<String, LongAdder> handlerNanos;
+    private long periodStart;
+    private long periodBlocks;
+    private long periodTransactions;
+    private double blocksPerSecond;
+    private double transactionsPerSecond;
+
+    public WatcherMetrics() {
+        this.headLag = new AtomicLong(0);
+        this.lastBlock = new AtomicLong(-1);
+        this.blocks = new LongAdder();
+        this.transactions = new LongAdder();
+        this.latencyBuckets = new AtomicLongArray(LATENCY_BUCKETS_MS.length + 1);
+        this.lookups = new LongAdder();
+        this.lookupNanos = new LongAdder();
+        this.rpcFailures = new LongAdder();
+        this.handlerFailures = new LongAdder();
+        this.handlerNanos = new ConcurrentHashMap<>();
+        this.periodStart = System.nanoTime();
+        this.periodBlocks = 0;
+        this.periodTransactions = 0;
+        this.blocksPerSecond = 0;
+        this.transactionsPerSecond = 0;
+    }
+
+    @Override
+    public void onBlockFetched(long blockNumber, int transactions, long headLag) {
+        this.headLag.set(headLag);
+        this.lastBlock.set(blockNumber);
+        this.blocks.increment();
+        this.transactions.add(transactions);
+        updateRates();
+    }
+
+    @Override
+    public void onTransactionInformation(long nanos, boolean success) {
+        long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKETS_MS.length && ms > LATENCY_BUCKETS_MS[bucket]) {
+            bucket++;
+        }
+        latencyBuckets.incrementAndGet(bucket);
+        lookups.increment();
+        lookupNanos.add(nanos);
+    }
+
+    @Override
+    public void onRpcFailure(String method, Throwable error) {
+        rpcFailures.increment();
+    }
+
+    @Override
+    public void onHandlerCall(TronEventHandler handler, long nanos, Throwable error) {
+        handlerNanos.computeIfAbsent(handler.getClass().getName(), k -> new LongAdder()).add(nanos);
+        if (error != null) {
+            handlerFailures.increment();
+        }
+    }
+
+    @Override
+    public long getHeadLag() {
+        return headLag.get();
+    }
+
+    @Override
+    public long getLastBlock() {
+        return lastBlock.get();
+    }
+
+    @Override
+    public long getBlocks() {
+        return blocks.sum();
+    }
+
+    @Override
+    public long getTransactions() {
+        return transactions.sum();
+    }
+
+    @Override
+    public synchronized double getBlocksPerSecond() {
+        return blocksPerSecond;
+    }
+
+    @Override
+    public synchronized double getTransactionsPerSecond() {
+        return transactionsPerSecond;
+    }
+
+    @Override
+    public long getTransactionInformationLookups() {
+        return lookups.sum();
+    }
+
+    @Override
+    public Map<String, Long> getTransactionInformationLatencyHistogram() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+            histogram.put(String.valueOf(LATENCY_BUCKETS_MS[i]), latencyBuckets.get(i));
+        }
+        histogram.put("+Inf", latencyBuckets.get(LATENCY_BUCKETS_MS.length));
+        return histogram;
+    }
+
+    @Override
+    public double getTransactionInformationMeanLatencyMs() {
+        long count = lookups.sum();
+        return count == 0 ? 0 : (double) lookupNanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public long getRpcFailures() {
+        return rpcFailures.sum();
+    }
+
+    @Override
+    public long getHandlerFailures() {
+        return handlerFailures.sum();
+    }
+
+    @Override
+    public Map<String, Long> getHandlerTimeMs() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : handlerNanos.entrySet()) {
+            result.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue().sum()));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void reset() {
+        blocks.reset();
+        transactions.reset();
+        for (int i = 0; i < latencyBuckets.length(); i++) {
+            latencyBuckets.set(i, 0);
+        }
+        lookups.reset();
+        lookupNanos.reset();
+        rpcFailures.reset();
+        handlerFailures.reset();
+        handlerNanos.clear();
+        periodStart = System.nanoTime();
+        periodBlocks = 0;
+        periodTransactions = 0;
+        blocksPerSecond = 0;
+        transactionsPerSecond = 0;
+    }
+
+    /**
+     * Computes the rates at the end of each measure period.
+     */
+    private synchronized void updateRates() {
+        long now = System.nanoTime();
+        long elapsed = now - periodStart;
+        if (elapsed < RATE_PERIOD_NANOS) {
+            return;
+        }
+        long totalBlocks = blocks.sum();
+        long totalTransactions = transactions.sum();
+        double seconds = (double) elapsed / TimeUnit.SECONDS.toNanos(1);
+        blocksPerSecond = (totalBlocks - periodBlocks) / seconds;
+        transactionsPerSecond = (totalTransactions - periodTransactions) / seconds;
+        periodStart = now;
+        periodBlocks = totalBlocks;
+        periodTransactions = totalTransactions;
+    }
+}
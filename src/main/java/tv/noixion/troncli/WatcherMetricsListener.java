@@ -0,0 +1,48 @@
+package tv.noixion.troncli;
+
+import tv.noixion.troncli.utils.TronEventHandler;
+
+/**
+ * Receives the events of a block chain watcher, to measure its progress.
+ * The methods are called by the threads of the watcher, so they must be fast, thread safe
+ * and must not throw exceptions.
+ */
+public interface WatcherMetricsListener {
+    /**
+     * Called when a block is fetched.
+     *
+     * @param blockNumber  The block number.
+     * @param transactions The number of transactions of the block.
+     * @param headLag      The number of blocks between the block and the head of the node.
+     */
+    public default void onBlockFetched(long blockNumber, int transactions, long headLag) {
+    }
+
+    /**
+     * Called when a transaction information lookup ends.
+     *
+     * @param nanos   The duration of the lookup (nanoseconds).
+     * @param success true if the lookup succeeded.
+     */
+    public default void onTransactionInformation(long nanos, boolean success) {
+    }
+
+    /**
+     * Called when a call to a node fails.
+     *
+     * @param method The name of the call.
+     * @param error  The error.
+     */
+    public default void onRpcFailure(String method, Throwable error) {
+    }
+
+    /**
+     * Called when a handler returns.
+     *
+     * @param handler The handler.
+     * @param nanos   The time spent in the handler (nanoseconds).
+     * @param error   The exception thrown by the handler, or null.
+     */
+    public default void onHandlerCall(TronEventHandler handler, long nanos, Throwable error) {
+    }
+}
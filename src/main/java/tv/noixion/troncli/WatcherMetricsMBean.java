@@ -0,0 +1,73 @@
+package tv.noixion.troncli;
+
+import java.util.Map;
+
+/**
+ * JMX view of the metrics of a block chain watcher.
+ */
+public interface WatcherMetricsMBean {
+    /**
+     * @return The number of blocks between the last fetched block and the head of the node.
+     */
+    public long getHeadLag();
+
+    /**
+     * @return The number of the last fetched block.
+     */
+    public long getLastBlock();
+
+    /**
+     * @return The number of fetched blocks.
+     */
+    public long getBlocks();
+
+    /**
+     * @return The number of transactions of the fetched blocks.
+     */
+    public long getTransactions();
+
+    /**
+     * @return The fetched blocks per second, over the last measure period.
+     */
+    public double getBlocksPerSecond();
+
+    /**
+     * @return The fetched transactions per second, over the last measure period.
+     */
+    public double getTransactionsPerSecond();
+
+    /**
+     * @return The number of transaction information lookups.
+     */
+    public long getTransactionInformationLookups();
+
+    /**
+     * @return The number of lookups by upper bound of their duration (milliseconds, "+Inf" for the last one).
+     */
+    public Map<String, Long> getTransactionInformationLatencyHistogram();
+
+    /**
+     * @return The mean duration of the transaction information lookups (milliseconds).
+     */
+    public double getTransactionInformationMeanLatencyMs();
+
+    /**
+     * @return The number of failed calls to the nodes.
+     */
+    public long getRpcFailures();
+
+    /**
+     * @return The number of exceptions thrown by the handlers.
+     */
+    public long getHandlerFailures();
+
+    /**
+     * @return The time spent in each handler (milliseconds), by handler class.
+     */
+    public Map<String, Long> getHandlerTimeMs();
+
+    /**
+     * Resets the counters.
+     */
+    public void reset();
+}
@@ -0,0 +1,16 @@
+package tv.noixion.troncli.grpc;
+
+/**
+ * How signed transactions are broadcasted to the nodes.
+ */
+public enum BroadcastMode {
+    /**
+     * The transaction is sent to one node, the next nodes are only tried if it fails.
+     */
+    SEQUENTIAL,
+    /**
+     * The transaction is sent to all the full nodes at the same time.
+     * The broadcast succeeds as soon as one node accepts it.
+     */
+    FAN_OUT
+}
@@ -0,0 +1,178 @@
+package tv.noixion.troncli.grpc;
+
+import io.grpc.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool of channels (HTTP/2 connections) to the same node.
+ * Each call is sent through one of the channels, so the concurrent calls are not limited
+ * by the max concurrent streams of a single connection, and a large reply only blocks its own connection.
+ */
+public class ChannelPool extends Channel {
+    /**
+     * Selection of the channel for each call.
+     */
+    public enum Selection {
+        /**
+         * The channels are used in turn.
+         */
+        ROUND_ROBIN,
+        /**
+         * The channel with the fewest calls in progress is used.
+         */
+        LEAST_IN_FLIGHT
+    }
+
+    private final List<ManagedChannel> channels;
+    private final List<Channel> counted;
+    private final AtomicInteger[] inFlight;
+    private final Selection selection;
+    private final AtomicInteger next;
+
+    /**
+     * Creates a new pool.
+     *
+     * @param size      The number of channels.
+     * @param selection The selection of the channel for each call.
+     * @param factory   Creates the channels.
+     */
+    public ChannelPool(int size, Selection selection, Supplier<ManagedChannel> factory) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("At least one channel is required.");
+        }
+        List<ManagedChannel> channels = new ArrayList<>(size);
+        List<Channel> counted = new ArrayList<>(size);
+        this.inFlight = new AtomicInteger[size];
+        for (int i = 0; i < size; i++) {
+            ManagedChannel channel = factory.get();
+            inFlight[i] = new AtomicInteger(0);
+            channels.add(channel);
+            counted.add(ClientInterceptors.intercept(channel, new InFlightInterceptor(inFlight[i])));
+        }
+        this.channels = Collections.unmodifiableList(channels);
+        this.counted = counted;
+        this.selection = selection;
+        this.next = new AtomicInteger(0);
+    }
+
+    /**
+     * @return The channels of the pool.
+     */
+    public List<ManagedChannel> getChannels() {
+        return channels;
+    }
+
+    /**
+     * @return The number of calls in progress, over all the channels.
+     */
+    public int getInFlight() {
+        int total = 0;
+        for (AtomicInteger count : inFlight) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        return counted.get(selectIndex()).newCall(method, callOptions);
+    }
+
+    @Override
+    public String authority() {
+        return channels.get(0).authority();
+    }
+
+    private int selectIndex() {
+        int size = channels.size();
+        if (size == 1) {
+            return 0;
+        }
+        // Start from a rotating index, so ties are spread across the channels
+        int start = (next.getAndIncrement() & Integer.MAX_VALUE) % size;
+        if (selection == Selection.ROUND_ROBIN) {
+            return start;
+        }
+        int best = start;
+        int bestCount = inFlight[start].get();
+        for (int i = 1; i < size && bestCount > 0; i++) {
+            int index = (start + i) % size;
+            int count = inFlight[index].get();
+            if (count < bestCount) {
+                best = index;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Shuts down all the channels.
+     *
+     * @return This pool.
+     */
+    public ChannelPool shutdown() {
+        for (ManagedChannel channel : channels) {
+            channel.shutdown();
+        }
+        return this;
+    }
+
+    /**
+     * Waits for all the channels to terminate.
+     *
+     * @param timeout The max time to wait.
+     * @param unit    The time unit.
+     * @return true if all the channels terminated.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ManagedChannel channel : channels) {
+            if (!channel.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the calls in progress on a channel.
+     */
+    private static class InFlightInterceptor implements ClientInterceptor {
+        private final AtomicInteger inFlight;
+
+        private InFlightInterceptor(AtomicInteger inFlight) {
+            this.inFlight = inFlight;
+        }
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                                   CallOptions callOptions, Channel next) {
+            return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
+                @Override
+                public void start(Listener<RespT> responseListener, Metadata headers) {
+                    inFlight.incrementAndGet();
+                    try {
+                        super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(responseListener) {
+                            @Override
+                            public void onClose(Status status, Metadata trailers) {
+                                inFlight.decrementAndGet();
+                                super.onClose(status, trailers);
+                            }
+                        }, headers);
+                    } catch (RuntimeException ex) {
+                        inFlight.decrementAndGet();
+                        throw ex;
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package tv.noixion.troncli.grpc;
+
+/**
+ * Circuit breaker of a node.
+ * <p>
+ * CLOSED: the node receives calls. After a number of consecutive node failures it becomes OPEN.
+ * OPEN: the node is skipped. After the open duration it becomes HALF_OPEN, unless it is
+ * managed by a health probe, in that case only the probe can close it again.
+ * HALF_OPEN: one trial call is allowed. If it succeeds the breaker is CLOSED, otherwise it is OPEN again.
+ */
+public class CircuitBreaker {
+    /**
+     * State of the breaker.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_DURATION_MS = 10 * 1000;
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private volatile State state;
+    private volatile boolean probeManaged;
+    private int consecutiveFailures;
+    private long stateSince;
+
+    /**
+     * Creates a new circuit breaker.
+     *
+     * @param failureThreshold Number of consecutive failures to open the breaker.
+     * @param openDurationMs   Time the breaker stays open before allowing a trial call (milliseconds).
+     */
+    public CircuitBreaker(int failureThreshold, long openDurationMs) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.state = State.CLOSED;
+        this.probeManaged = false;
+        this.consecutiveFailures = 0;
+        this.stateSince = System.currentTimeMillis();
+    }
+
+    /**
+     * Creates a new circuit breaker with the default settings.
+     */
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION_MS);
+    }
+
+    /**
+     * @return The current state.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Checks if a call can be sent to the node. For a CLOSED breaker, it only reads a volatile field.
+     * If the breaker is OPEN for longer than the open duration, the caller gets the HALF_OPEN trial call.
+     *
+     * @return true if the node can be called.
+     */
+    public boolean isAvailable() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (probeManaged) {
+            return false;
+        }
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (now - stateSince >= openDurationMs) {
+                // The previous trial was not sent or did not finish in time, allow another one
+                setState(State.HALF_OPEN, now);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Registers a successful call.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            setState(State.CLOSED, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Registers a call failed because of the node.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            setState(State.OPEN, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Opens the breaker.
+     */
+    public synchronized void trip() {
+        if (state != State.OPEN) {
+            setState(State.OPEN, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Closes the breaker.
+     */
+    public synchronized void reset() {
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            setState(State.CLOSED, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Sets if the breaker is managed by a health probe. In that case an OPEN breaker
+     * does not allow trial calls, only the probe closes it.
+     *
+     * @param probeManaged true if it is managed by a health probe.
+     */
+    public void setProbeManaged(boolean probeManaged) {
+        this.probeManaged = probeManaged;
+    }
+
+    private void setState(State state, long now) {
+        this.state = state;
+        this.stateSince = now;
+    }
+}
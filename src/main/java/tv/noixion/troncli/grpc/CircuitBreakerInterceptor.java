@@ -0,0 +1,40 @@
+package tv.noixion.troncli.grpc;
+
+import io.grpc.*;
+
+/**
+ * Interceptor feeding the circuit breaker of a node with the status of the calls.
+ */
+public class CircuitBreakerInterceptor implements ClientInterceptor {
+    private final CircuitBreaker breaker;
+
+    /**
+     * Creates a new interceptor.
+     *
+     * @param breaker The circuit breaker of the node.
+     */
+    public CircuitBreakerInterceptor(CircuitBreaker breaker) {
+        this.breaker = breaker;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        if (NodeStatsInterceptor.isNodeFailure(status)) {
+                            breaker.recordFailure();
+                        } else if (status.getCode() != Status.Code.CANCELLED) {
+                            breaker.recordSuccess();
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+}
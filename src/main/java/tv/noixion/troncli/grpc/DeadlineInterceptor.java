@@ -0,0 +1,34 @@
+package tv.noixion.troncli.grpc;
+
+import io.grpc.*;
+import tv.noixion.troncli.TronClientConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interceptor setting the configured deadline on the calls that do not have one.
+ */
+public class DeadlineInterceptor implements ClientInterceptor {
+    private final TronClientConfig config;
+
+    /**
+     * Creates a new interceptor.
+     *
+     * @param config The client configuration, with the deadlines by method.
+     */
+    public DeadlineInterceptor(TronClientConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        if (callOptions.getDeadline() == null) {
+            long deadlineMs = config.getDeadlineMs(method.getFullMethodName());
+            if (deadlineMs > 0) {
+                callOptions = callOptions.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        return next.newCall(method, callOptions);
+    }
+}
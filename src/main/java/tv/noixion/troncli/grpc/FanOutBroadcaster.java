@@ -0,0 +1,154 @@
+package tv.noixion.troncli.grpc;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.tron.api.GrpcAPI;
+import org.tron.api.GrpcAPI.Return.response_code;
+import org.tron.protos.Protocol.Transaction;
+import tv.noixion.troncli.exceptions.GRPCException;
+import tv.noixion.troncli.exceptions.TransactionException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Broadcasts signed transactions to all the full nodes of a pool at the same time.
+ * The broadcast succeeds as soon as one node accepts the transaction. A DUP_TRANSACTION_ERROR
+ * reply means the node already has the transaction, so it also counts as accepted.
+ * The calls to the other nodes are not cancelled, so the transaction reaches all of them.
+ */
+public class FanOutBroadcaster {
+    private final NodePool pool;
+
+    /**
+     * Creates a new broadcaster.
+     *
+     * @param pool The nodes.
+     */
+    public FanOutBroadcaster(NodePool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Broadcasts a signed transaction to all the full nodes.
+     *
+     * @param transaction The signed transaction.
+     * @return A future completed with the transaction when a node accepts it. It fails with a
+     * TransactionException if all the nodes rejected it, or a GRPCException if no node could be reached.
+     */
+    public CompletableFuture<Transaction> broadcastAsync(Transaction transaction) {
+        List<GrpcClient> targets = new ArrayList<>();
+        Set<String> fullNodes = new HashSet<>();
+        for (GrpcClient node : pool.candidates()) {
+            if (fullNodes.add(node.getFullNode())) {
+                targets.add(node);
+            }
+        }
+        FanOut fanOut = new FanOut(transaction, targets.size());
+        for (GrpcClient node : targets) {
+            ListenableFuture<GrpcAPI.Return> future;
+            try {
+                future = node.broadcastTransactionAsync(transaction);
+            } catch (Exception ex) {
+                fanOut.failed(ex);
+                continue;
+            }
+            Futures.addCallback(future, new FutureCallback<GrpcAPI.Return>() {
+                @Override
+                public void onSuccess(GrpcAPI.Return response) {
+                    fanOut.answered(response);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    fanOut.failed(t);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+        return fanOut.result;
+    }
+
+    /**
+     * Broadcasts a signed transaction to all the full nodes, and waits until a node accepts it.
+     *
+     * @param transaction The signed transaction.
+     * @return The transaction.
+     * @throws GRPCException        If no node could be reached.
+     * @throws TransactionException If all the nodes rejected the transaction.
+     */
+    public Transaction broadcast(Transaction transaction) throws GRPCException, TransactionException {
+        CompletableFuture<Transaction> future = broadcastAsync(transaction);
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GRPCException("Interrupted while waiting for the node.");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof TransactionException) {
+                throw (TransactionException) ex.getCause();
+            }
+            if (ex.getCause() instanceof GRPCException) {
+                throw (GRPCException) ex.getCause();
+            }
+            throw new GRPCException(ex.getCause().getMessage());
+        }
+    }
+
+    /**
+     * State of one broadcast.
+     */
+    private static class FanOut {
+        private final Transaction transaction;
+        private final CompletableFuture<Transaction> result;
+        private int pending;
+        private TransactionException rejection;
+        private GRPCException exception;
+
+        private FanOut(Transaction transaction, int pending) {
+            this.transaction = transaction;
+            this.result = new CompletableFuture<>();
+            this.pending = pending;
+            this.rejection = null;
+            this.exception = new GRPCException("Could not perform the action");
+        }
+
+        private void answered(GrpcAPI.Return response) {
+            if (response.getResult() || response.getCode() == response_code.DUP_TRANSACTION_ERROR) {
+                result.complete(transaction);
+                done();
+                return;
+            }
+            synchronized (this) {
+                if (rejection == null) {
+                    rejection = new TransactionException(response.getCode(), response.getMessage().toStringUtf8());
+                }
+            }
+            done();
+        }
+
+        private void failed(Throwable t) {
+            synchronized (this) {
+                exception = new GRPCException(t.getMessage());
+            }
+            done();
+        }
+
+        private synchronized void done() {
+            pending--;
+            if (pending == 0 && !result.isDone()) {
+                // A rejection from a node says more than a connection error from another one
+                if (rejection != null) {
+                    result.completeExceptionally(rejection);
+                } else {
+                    result.completeExceptionally(exception);
+                }
+            }
+        }
+    }
+}
@@ -1,13 +1,15 @@
 package tv.noixion.troncli.grpc;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.protobuf.ByteString;
-import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
+import io.grpc.Channel;
+import io.grpc.ClientInterceptors;
+import io.grpc.okhttp.OkHttpChannelBuilder;
+import tv.noixion.troncli.TronClientConfig;
 import tv.noixion.troncli.exceptions.TransactionException;
 import org.apache.commons.lang3.StringUtils;
 import org.tron.api.GrpcAPI;
 import org.tron.api.GrpcAPI.*;
-import org.tron.api.GrpcAPI.Return.response_code;
 import org.tron.api.WalletExtensionGrpc;
 import org.tron.api.WalletGrpc;
 import org.tron.api.WalletSolidityGrpc;
@@ -19,28 +21,137 @@ import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 public class GrpcClient {
-    private ManagedChannel channelFull = null;
-    private ManagedChannel channelSolidity = null;
+    private ChannelPool channelFull = null;
+    private ChannelPool channelSolidity = null;
     private WalletGrpc.WalletBlockingStub blockingStubFull = null;
     private WalletSolidityGrpc.WalletSolidityBlockingStub blockingStubSolidity = null;
     private WalletExtensionGrpc.WalletExtensionBlockingStub blockingStubExtension = null;
+    private WalletGrpc.WalletFutureStub futureStubFull = null;
+    private WalletSolidityGrpc.WalletSolidityFutureStub futureStubSolidity = null;
+    private final String fullNode;
+    private final String solidityNode;
+    private final NodeStats stats;
+    private final CircuitBreaker circuitBreaker;
+    private final RetryBudget retryBudget;
+    private final RetryBudget sharedRetryBudget;
 
     public GrpcClient(String fullnode, String soliditynode) {
+        this(fullnode, soliditynode, TronClientConfig.defaults());
+    }
+
+    /**
+     * Creates a new client.
+     *
+     * @param fullnode     The full node target (host:port).
+     * @param soliditynode The solidity node target (host:port), empty if there is no solidity node.
+     * @param config       The client configuration.
+     */
+    public GrpcClient(String fullnode, String soliditynode, TronClientConfig config) {
+        this(fullnode, soliditynode, config, config.newRetryBudget());
+    }
+
+    /**
+     * Creates a new client.
+     *
+     * @param fullnode          The full node target (host:port).
+     * @param soliditynode      The solidity node target (host:port), empty if there is no solidity node.
+     * @param config            The client configuration.
+     * @param sharedRetryBudget The retry budget shared with the other nodes of the same Tron client.
+     */
+    public GrpcClient(String fullnode, String soliditynode, TronClientConfig config, RetryBudget sharedRetryBudget) {
+        this.fullNode = fullnode;
+        this.solidityNode = soliditynode;
+        this.stats = new NodeStats();
+        this.circuitBreaker = new CircuitBreaker(config.getCircuitBreakerFailureThreshold(),
+                config.getCircuitBreakerOpenDurationMs());
+        this.retryBudget = config.newRetryBudget();
+        this.sharedRetryBudget = sharedRetryBudget;
         if (!StringUtils.isEmpty(fullnode)) {
-            channelFull = ManagedChannelBuilder.forTarget(fullnode)
-                    .usePlaintext(true)
-                    .build();
-            blockingStubFull = WalletGrpc.newBlockingStub(channelFull);
+            channelFull = buildChannelPool(fullnode, config);
+            Channel channel = intercept(channelFull, config);
+            blockingStubFull = WalletGrpc.newBlockingStub(channel);
+            futureStubFull = WalletGrpc.newFutureStub(channel);
         }
         if (!StringUtils.isEmpty(soliditynode)) {
-            channelSolidity = ManagedChannelBuilder.forTarget(soliditynode)
-                    .usePlaintext(true)
-                    .build();
-            blockingStubSolidity = WalletSolidityGrpc.newBlockingStub(channelSolidity);
-            blockingStubExtension = WalletExtensionGrpc.newBlockingStub(channelSolidity);
+            channelSolidity = buildChannelPool(soliditynode, config);
+            Channel channel = intercept(channelSolidity, config);
+            blockingStubSolidity = WalletSolidityGrpc.newBlockingStub(channel);
+            blockingStubExtension = WalletExtensionGrpc.newBlockingStub(channel);
+            futureStubSolidity = WalletSolidityGrpc.newFutureStub(channel);
         }
     }
 
+    private static ChannelPool buildChannelPool(String target, TronClientConfig config) {
+        return new ChannelPool(config.getChannelsPerNode(), config.getChannelSelection(), () -> {
+            OkHttpChannelBuilder builder = OkHttpChannelBuilder.forTarget(target)
+                    .usePlaintext()
+                    .maxInboundMessageSize(config.getMaxInboundMessageSize())
+                    .flowControlWindow(config.getFlowControlWindow());
+            if (config.getKeepAliveTimeMs() > 0) {
+                builder.keepAliveTime(config.getKeepAliveTimeMs(), TimeUnit.MILLISECONDS)
+                        .keepAliveTimeout(config.getKeepAliveTimeoutMs(), TimeUnit.MILLISECONDS)
+                        .keepAliveWithoutCalls(config.isKeepAliveWithoutCalls());
+            }
+            if (config.getIdleTimeoutMs() > 0) {
+                builder.idleTimeout(config.getIdleTimeoutMs(), TimeUnit.MILLISECONDS);
+            }
+            if (config.getExecutor() != null) {
+                builder.executor(config.getExecutor());
+            }
+            return builder.build();
+        });
+    }
+
+    private Channel intercept(ChannelPool pool, TronClientConfig config) {
+        // The last interceptor runs first: the deadline covers all the attempts, and each attempt is measured
+        return ClientInterceptors.intercept(pool, new NodeStatsInterceptor(stats),
+                new CircuitBreakerInterceptor(circuitBreaker),
+                new RetryInterceptor(config.getRetryPolicy(), retryBudget, sharedRetryBudget),
+                new DeadlineInterceptor(config));
+    }
+
+    /**
+     * @return The full node target (host:port).
+     */
+    public String getFullNode() {
+        return fullNode;
+    }
+
+    /**
+     * @return The solidity node target (host:port), empty if there is no solidity node.
+     */
+    public String getSolidityNode() {
+        return solidityNode;
+    }
+
+    /**
+     * @return The latency and error statistics of the calls made by this client.
+     */
+    public NodeStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return The circuit breaker of this node.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return The retry budget of this node.
+     */
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    /**
+     * @return true if this client has a solidity node.
+     */
+    public boolean hasSolidityNode() {
+        return channelSolidity != null;
+    }
+
     public void shutdown() throws InterruptedException {
         if (channelFull != null) {
             channelFull.shutdown().awaitTermination(5, TimeUnit.SECONDS);
@@ -281,19 +392,8 @@ public class GrpcClient {
     }
 
     public Transaction broadcastTransaction(Transaction signedTransaction) throws TransactionException {
-        int i = 10;
+        // SERVER_BUSY replies are retried by the retry policy of the channel
         GrpcAPI.Return response = blockingStubFull.broadcastTransaction(signedTransaction);
-        while (response.getResult() == false && response.getCode() == response_code.SERVER_BUSY
-                && i > 0) {
-            i--;
-            response = blockingStubFull.broadcastTransaction(signedTransaction);
-            //System.out.println("repeate times = " + (11 - i));
-            try {
-                Thread.sleep(300);
-            } catch (InterruptedException e) {
-                //e.printStackTrace();
-            }
-        }
         if (response.getResult() == false) {
             throw new TransactionException(response.getCode(), response.getMessage().toStringUtf8());
         }
@@ -592,4 +692,78 @@ public class GrpcClient {
     public TransactionExtention updateEnergyLimit(Contract.UpdateEnergyLimitContract request) {
         return blockingStubFull.updateEnergyLimit(request);
     }
+
+    /* Asynchronous calls (future stubs) */
+
+    public ListenableFuture<Account> queryAccountAsync(byte[] address) {
+        ByteString addressBS = ByteString.copyFrom(address);
+        Account request = Account.newBuilder().setAddress(addressBS).build();
+        if (futureStubSolidity != null) {
+            return futureStubSolidity.getAccount(request);
+        } else {
+            return futureStubFull.getAccount(request);
+        }
+    }
+
+    public ListenableFuture<TransactionExtention> createTransaction2Async(Contract.TransferContract contract) {
+        return futureStubFull.createTransaction2(contract);
+    }
+
+    public ListenableFuture<GrpcAPI.Return> broadcastTransactionAsync(Transaction signedTransaction) {
+        return futureStubFull.broadcastTransaction(signedTransaction);
+    }
+
+    public ListenableFuture<BlockExtention> getBlock2Async(long blockNum) {
+        if (blockNum < 0) {
+            if (futureStubSolidity != null) {
+                return futureStubSolidity.getNowBlock2(EmptyMessage.newBuilder().build());
+            } else {
+                return futureStubFull.getNowBlock2(EmptyMessage.newBuilder().build());
+            }
+        }
+        NumberMessage.Builder builder = NumberMessage.newBuilder();
+        builder.setNum(blockNum);
+        if (futureStubSolidity != null) {
+            return futureStubSolidity.getBlockByNum2(builder.build());
+        } else {
+            return futureStubFull.getBlockByNum2(builder.build());
+        }
+    }
+
+    public ListenableFuture<BlockListExtention> getBlockByLimitNext2Async(long start, long end) {
+        BlockLimit.Builder builder = BlockLimit.newBuilder();
+        builder.setStartNum(start);
+        builder.setEndNum(end);
+        return futureStubFull.getBlockByLimitNext2(builder.build());
+    }
+
+    public ListenableFuture<TransactionInfo> getTransactionInfoByIdAsync(String txID) {
+        ByteString bsTxid = ByteString.copyFrom(ByteArray.fromHexString(txID));
+        BytesMessage request = BytesMessage.newBuilder().setValue(bsTxid).build();
+        if (futureStubSolidity != null) {
+            return futureStubSolidity.getTransactionInfoById(request);
+        } else {
+            return futureStubFull.getTransactionInfoById(request);
+        }
+    }
+
+    public ListenableFuture<TransactionExtention> triggerContractAsync(Contract.TriggerSmartContract request) {
+        return futureStubFull.triggerContract(request);
+    }
+
+    public ListenableFuture<SmartContract> getContractAsync(byte[] address) {
+        ByteString byteString = ByteString.copyFrom(address);
+        BytesMessage bytesMessage = BytesMessage.newBuilder().setValue(byteString).build();
+        return futureStubFull.getContract(bytesMessage);
+    }
+
+    public ListenableFuture<BlockExtention> getNowBlockFullAsync(long timeoutMs) {
+        return futureStubFull.withDeadlineAfter(timeoutMs, TimeUnit.MILLISECONDS)
+                .getNowBlock2(EmptyMessage.newBuilder().build());
+    }
+
+    public ListenableFuture<BlockExtention> getNowBlockSolidityAsync(long timeoutMs) {
+        return futureStubSolidity.withDeadlineAfter(timeoutMs, TimeUnit.MILLISECONDS)
+                .getNowBlock2(EmptyMessage.newBuilder().build());
+    }
 }
@@ -0,0 +1,81 @@
+package tv.noixion.troncli.grpc;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Policy for hedged reads. If the primary node has not answered after a delay, the same request
+ * is sent to a second node, and the first answer is used.
+ * The delay is a percentile of the recent latencies of the primary node, bounded by a minimum and a maximum.
+ */
+public class HedgingPolicy {
+    /**
+     * Minimum number of latency samples of a node to use its percentile. Until then, the max delay is used.
+     */
+    public static final int MIN_SAMPLES = 16;
+
+    private final double percentile;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+
+    /**
+     * Creates a new hedging policy.
+     *
+     * @param percentile The latency percentile (0 - 1) of the primary node to wait before hedging, for example 0.95
+     * @param minDelayMs The minimum delay before hedging (milliseconds).
+     * @param maxDelayMs The maximum delay before hedging (milliseconds).
+     */
+    public HedgingPolicy(double percentile, long minDelayMs, long maxDelayMs) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("The percentile must be in (0, 1].");
+        }
+        if (minDelayMs < 0 || maxDelayMs < minDelayMs) {
+            throw new IllegalArgumentException("Invalid delay bounds.");
+        }
+        this.percentile = percentile;
+        this.minDelayMs = minDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * Creates a new hedging policy, hedging after the 95th percentile of latency (between 20ms and 2s).
+     */
+    public HedgingPolicy() {
+        this(0.95, 20, 2000);
+    }
+
+    /**
+     * @return The latency percentile to wait before hedging.
+     */
+    public double getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * @return The minimum delay before hedging (milliseconds).
+     */
+    public long getMinDelayMs() {
+        return minDelayMs;
+    }
+
+    /**
+     * @return The maximum delay before hedging (milliseconds).
+     */
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    /**
+     * Computes the delay before hedging a call sent to a node.
+     *
+     * @param primary The statistics of the primary node.
+     * @return The delay in nanoseconds.
+     */
+    public long getDelayNanos(NodeStats primary) {
+        long min = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+        long max = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        if (primary.getLatencySampleCount() < MIN_SAMPLES) {
+            return max;
+        }
+        return Math.max(min, Math.min(max, primary.getLatencyPercentile(percentile)));
+    }
+}
@@ -0,0 +1,166 @@
+package tv.noixion.troncli.grpc;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.tron.api.GrpcAPI;
+
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background health probe of the nodes of a pool.
+ * Periodically asks every node for its head block (getNowBlock2). A node is healthy if it answers
+ * and its head is not lagging behind the best head of the pool by more than the allowed number of blocks.
+ * Open circuit breakers are only closed (the node re-admitted) by a healthy probe, and lagging nodes are opened.
+ */
+public class NodeHealthProbe {
+    private final List<GrpcClient> nodes;
+    private final long periodMs;
+    private final long maxBlockLag;
+    private final long timeoutMs;
+    private ScheduledFuture<?> task;
+
+    /**
+     * Creates a new health probe.
+     *
+     * @param nodes       The nodes to probe.
+     * @param periodMs    Time between probes (milliseconds).
+     * @param maxBlockLag Max number of blocks a node can lag behind the best node.
+     */
+    public NodeHealthProbe(List<GrpcClient> nodes, long periodMs, long maxBlockLag) {
+        this.nodes = nodes;
+        this.periodMs = periodMs;
+        this.maxBlockLag = maxBlockLag;
+        this.timeoutMs = Math.max(1, periodMs);
+        this.task = null;
+    }
+
+    /**
+     * Starts probing the nodes.
+     */
+    public synchronized void start() {
+        if (task != null) {
+            return;
+        }
+        for (GrpcClient node : nodes) {
+            node.getCircuitBreaker().setProbeManaged(true);
+        }
+        task = SharedScheduler.get().scheduleWithFixedDelay(this::probe, 0, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops probing the nodes. The circuit breakers go back to trial calls for re-admission.
+     */
+    public synchronized void stop() {
+        if (task == null) {
+            return;
+        }
+        task.cancel(false);
+        task = null;
+        for (GrpcClient node : nodes) {
+            node.getCircuitBreaker().setProbeManaged(false);
+        }
+    }
+
+    /**
+     * Probes all the nodes once.
+     */
+    public void probe() {
+        ProbeRound round = new ProbeRound(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            GrpcClient node = nodes.get(i);
+            probeHead(round, node, false, round.fullHeads, i);
+            if (node.hasSolidityNode()) {
+                round.pending.incrementAndGet();
+                probeHead(round, node, true, round.solidityHeads, i);
+            }
+        }
+        round.finishLaunch();
+    }
+
+    private void probeHead(ProbeRound round, GrpcClient node, boolean solidity, long[] heads, int index) {
+        ListenableFuture<GrpcAPI.BlockExtention> future;
+        try {
+            future = solidity ? node.getNowBlockSolidityAsync(timeoutMs) : node.getNowBlockFullAsync(timeoutMs);
+        } catch (Exception ex) {
+            round.failed[index] = true;
+            round.done();
+            return;
+        }
+        Futures.addCallback(future, new FutureCallback<GrpcAPI.BlockExtention>() {
+            @Override
+            public void onSuccess(GrpcAPI.BlockExtention block) {
+                heads[index] = block.getBlockHeader().getRawData().getNumber();
+                round.done();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                round.failed[index] = true;
+                round.done();
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Results of one probe over all the nodes.
+     */
+    private class ProbeRound {
+        private final long[] fullHeads;
+        private final long[] solidityHeads;
+        private final boolean[] failed;
+        private final AtomicInteger pending;
+
+        private ProbeRound(int size) {
+            this.fullHeads = new long[size];
+            this.solidityHeads = new long[size];
+            this.failed = new boolean[size];
+            // One pending per full node probe, plus one until all calls are launched
+            this.pending = new AtomicInteger(size + 1);
+            for (int i = 0; i < size; i++) {
+                fullHeads[i] = -1;
+                solidityHeads[i] = -1;
+            }
+        }
+
+        private void finishLaunch() {
+            done();
+        }
+
+        private void done() {
+            if (pending.decrementAndGet() == 0) {
+                synchronized (this) {
+                    evaluate();
+                }
+            }
+        }
+
+        private void evaluate() {
+            long bestFull = -1;
+            long bestSolidity = -1;
+            for (int i = 0; i < nodes.size(); i++) {
+                bestFull = Math.max(bestFull, fullHeads[i]);
+                bestSolidity = Math.max(bestSolidity, solidityHeads[i]);
+            }
+            for (int i = 0; i < nodes.size(); i++) {
+                GrpcClient node = nodes.get(i);
+                CircuitBreaker breaker = node.getCircuitBreaker();
+                boolean lagging = bestFull - fullHeads[i] > maxBlockLag
+                        || (node.hasSolidityNode() && bestSolidity - solidityHeads[i] > maxBlockLag);
+                if (failed[i]) {
+                    if (breaker.getState() == CircuitBreaker.State.CLOSED) {
+                        breaker.recordFailure();
+                    }
+                } else if (lagging) {
+                    breaker.trip();
+                } else if (breaker.getState() != CircuitBreaker.State.CLOSED) {
+                    breaker.reset();
+                }
+            }
+        }
+    }
+}
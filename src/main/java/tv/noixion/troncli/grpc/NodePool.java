@@ -0,0 +1,143 @@
+package tv.noixion.troncli.grpc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pool of nodes, routing each call to the node with the best latency and error statistics.
+ * The node is chosen with the "power of two choices" strategy: two random nodes are compared
+ * and the one with the lowest cost is used. This spreads the load across all the nodes
+ * while avoiding the slow or failing ones.
+ * Nodes whose circuit breaker is open are skipped.
+ */
+public class NodePool {
+    private final List<GrpcClient> nodes;
+    private NodeHealthProbe healthProbe;
+
+    /**
+     * Creates a new pool.
+     *
+     * @param nodes The nodes of the pool.
+     */
+    public NodePool(List<GrpcClient> nodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("At least one node is required.");
+        }
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+    }
+
+    /**
+     * @return All the nodes of the pool, in the configured order.
+     */
+    public List<GrpcClient> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Selects the node for the next call, among the nodes with a closed circuit breaker.
+     * If all the breakers are open, it selects among all the nodes.
+     *
+     * @return The selected node.
+     */
+    public GrpcClient select() {
+        return select(available());
+    }
+
+    /**
+     * Gets the nodes to use for the next call, in order. The first node is the selected one,
+     * the rest are the failover nodes, from lowest to highest cost.
+     * Nodes with an open circuit breaker are only used as a last resort, at the end of the list.
+     *
+     * @return The list of candidate nodes.
+     */
+    public List<GrpcClient> candidates() {
+        if (nodes.size() == 1) {
+            return nodes;
+        }
+        List<GrpcClient> available = available();
+        GrpcClient selected = select(available);
+        // Scores are taken once, they change while sorting
+        List<ScoredNode> rest = new ArrayList<>(nodes.size());
+        List<ScoredNode> unavailable = new ArrayList<>(nodes.size());
+        for (GrpcClient node : nodes) {
+            if (node == selected) {
+                continue;
+            }
+            if (available.contains(node)) {
+                rest.add(new ScoredNode(node, node.getStats().score()));
+            } else {
+                unavailable.add(new ScoredNode(node, node.getStats().score()));
+            }
+        }
+        rest.sort(Comparator.comparingDouble(scored -> scored.score));
+        unavailable.sort(Comparator.comparingDouble(scored -> scored.score));
+        rest.addAll(unavailable);
+        List<GrpcClient> result = new ArrayList<>(nodes.size());
+        result.add(selected);
+        for (ScoredNode scored : rest) {
+            result.add(scored.node);
+        }
+        return result;
+    }
+
+    /**
+     * Starts a background health probe of the nodes. While it runs, nodes with an open
+     * circuit breaker are only re-admitted after a healthy probe.
+     *
+     * @param periodMs    Time between probes (milliseconds).
+     * @param maxBlockLag Max number of blocks a node can lag behind the best node before it is removed.
+     */
+    public synchronized void startHealthProbe(long periodMs, long maxBlockLag) {
+        stopHealthProbe();
+        healthProbe = new NodeHealthProbe(nodes, periodMs, maxBlockLag);
+        healthProbe.start();
+    }
+
+    /**
+     * Stops the background health probe, if it is running.
+     */
+    public synchronized void stopHealthProbe() {
+        if (healthProbe != null) {
+            healthProbe.stop();
+            healthProbe = null;
+        }
+    }
+
+    private List<GrpcClient> available() {
+        List<GrpcClient> available = new ArrayList<>(nodes.size());
+        for (GrpcClient node : nodes) {
+            if (node.getCircuitBreaker().isAvailable()) {
+                available.add(node);
+            }
+        }
+        return available.isEmpty() ? nodes : available;
+    }
+
+    private static GrpcClient select(List<GrpcClient> nodes) {
+        if (nodes.size() == 1) {
+            return nodes.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = random.nextInt(nodes.size());
+        int b = random.nextInt(nodes.size() - 1);
+        if (b >= a) {
+            b++;
+        }
+        GrpcClient first = nodes.get(a);
+        GrpcClient second = nodes.get(b);
+        return first.getStats().score() <= second.getStats().score() ? first : second;
+    }
+
+    private static class ScoredNode {
+        private final GrpcClient node;
+        private final double score;
+
+        private ScoredNode(GrpcClient node, double score) {
+            this.node = node;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package tv.noixion.troncli.grpc;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency and error statistics of a node, measured from the calls made to it.
+ * Latency and error rate are exponentially weighted moving averages (EWMA).
+ */
+public class NodeStats {
+    /**
+     * Weight of a new sample in the moving averages.
+     */
+    public static final double EWMA_ALPHA = 0.2;
+
+    /**
+     * Time (ms) after which the error rate of a node that is not being called decays to ~37%.
+     * It allows a node to receive traffic again after a period of errors.
+     */
+    public static final long ERROR_DECAY_MS = 10 * 1000;
+
+    /**
+     * Number of recent latency samples kept to compute percentiles.
+     */
+    public static final int LATENCY_SAMPLES = 128;
+
+    private final AtomicInteger inFlight;
+    private double latencyEwma; // Nanoseconds
+    private double errorRate;
+    private long lastUpdate;
+    private long calls;
+    private long errors;
+    private final long[] samples;
+    private int sampleCount;
+    private int sampleIndex;
+
+    public NodeStats() {
+        this.inFlight = new AtomicInteger(0);
+        this.latencyEwma = 0;
+        this.errorRate = 0;
+        this.lastUpdate = System.currentTimeMillis();
+        this.calls = 0;
+        this.errors = 0;
+        this.samples = new long[LATENCY_SAMPLES];
+        this.sampleCount = 0;
+        this.sampleIndex = 0;
+    }
+
+    /**
+     * Registers the start of a call.
+     */
+    public void callStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Registers a call that finished successfully (the node answered).
+     *
+     * @param latencyNanos The time the call took, in nanoseconds.
+     */
+    public synchronized void callSucceeded(long latencyNanos) {
+        inFlight.decrementAndGet();
+        decay();
+        latencyEwma = (calls == 0) ? latencyNanos : latencyEwma + EWMA_ALPHA * (latencyNanos - latencyEwma);
+        errorRate = errorRate * (1 - EWMA_ALPHA);
+        calls++;
+        samples[sampleIndex] = latencyNanos;
+        sampleIndex = (sampleIndex + 1) % samples.length;
+        sampleCount = Math.min(sampleCount + 1, samples.length);
+    }
+
+    /**
+     * Registers a call that failed because of the node (unavailable, timeout, internal error...).
+     *
+     * @param latencyNanos The time until the failure, in nanoseconds.
+     */
+    public synchronized void callFailed(long latencyNanos) {
+        inFlight.decrementAndGet();
+        decay();
+        latencyEwma = (calls == 0) ? latencyNanos : latencyEwma + EWMA_ALPHA * (latencyNanos - latencyEwma);
+        errorRate = errorRate + EWMA_ALPHA * (1 - errorRate);
+        calls++;
+        errors++;
+    }
+
+    /**
+     * Registers a call that was cancelled by the client. It is not a sample of the node performance.
+     */
+    public void callCancelled() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return The moving average of the latency, in nanoseconds.
+     */
+    public synchronized double getLatency() {
+        return latencyEwma;
+    }
+
+    /**
+     * Computes a percentile of the latency of the recent successful calls.
+     *
+     * @param percentile The percentile (0 - 1).
+     * @return The latency in nanoseconds, -1 if there are no samples.
+     */
+    public synchronized long getLatencyPercentile(double percentile) {
+        if (sampleCount == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sampleCount) - 1;
+        return sorted[Math.max(0, Math.min(sampleCount - 1, index))];
+    }
+
+    /**
+     * @return The number of latency samples available for percentiles.
+     */
+    public synchronized int getLatencySampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return The moving average of the error rate (0 - 1).
+     */
+    public synchronized double getErrorRate() {
+        decay();
+        return errorRate;
+    }
+
+    /**
+     * @return The number of calls currently in flight.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return The total number of finished calls.
+     */
+    public synchronized long getCalls() {
+        return calls;
+    }
+
+    /**
+     * @return The total number of failed calls.
+     */
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Computes the cost of sending a new call to the node. Lower is better.
+     * Nodes without samples have cost 0, so they are tried.
+     *
+     * @return The cost of the node.
+     */
+    public synchronized double score() {
+        decay();
+        double successRate = Math.max(0.05, 1 - errorRate);
+        return latencyEwma * (inFlight.get() + 1) / successRate;
+    }
+
+    private void decay() {
+        long now = System.currentTimeMillis();
+        long elapsed = now - lastUpdate;
+        if (elapsed > 0) {
+            errorRate = errorRate * Math.exp(-((double) elapsed) / ERROR_DECAY_MS);
+            lastUpdate = now;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package tv.noixion.troncli.grpc;
+
+import io.grpc.*;
+
+/**
+ * Interceptor measuring the latency and the result of every call made to a node.
+ */
+public class NodeStatsInterceptor implements ClientInterceptor {
+    private final NodeStats stats;
+
+    /**
+     * Creates a new interceptor.
+     *
+     * @param stats The statistics to update.
+     */
+    public NodeStatsInterceptor(NodeStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Checks if a call status means the node failed (as opposed to a rejected request).
+     *
+     * @param status The status of the call.
+     * @return true if the node failed.
+     */
+    public static boolean isNodeFailure(Status status) {
+        switch (status.getCode()) {
+            case UNAVAILABLE:
+            case DEADLINE_EXCEEDED:
+            case INTERNAL:
+            case UNKNOWN:
+            case DATA_LOSS:
+                return true;
+            case RESOURCE_EXHAUSTED:
+                // A reply over the max inbound message size of the client is not a failure of the node
+                return !RetryPolicy.isMessageTooLarge(status);
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                final long start = System.nanoTime();
+                stats.callStarted();
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        long latency = System.nanoTime() - start;
+                        if (status.getCode() == Status.Code.CANCELLED) {
+                            stats.callCancelled();
+                        } else if (isNodeFailure(status)) {
+                            stats.callFailed(latency);
+                        } else {
+                            stats.callSucceeded(latency);
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+}
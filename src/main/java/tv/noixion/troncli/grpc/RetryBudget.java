@@ -0,0 +1,65 @@
+package tv.noixion.troncli.grpc;
+
+/**
+ * Budget limiting the retries, so they do not multiply the load on nodes that are already overloaded.
+ * It works as a token bucket: each retryable failure takes one token and each successful call gives back
+ * a fraction of a token. Retries are only allowed while more than half of the tokens are left.
+ */
+public class RetryBudget {
+    public static final int DEFAULT_MAX_TOKENS = 10;
+    public static final double DEFAULT_TOKEN_RATIO = 0.1;
+
+    private final double maxTokens;
+    private final double tokenRatio;
+    private double tokens;
+
+    /**
+     * Creates a new retry budget.
+     *
+     * @param maxTokens  Number of tokens of the bucket.
+     * @param tokenRatio Tokens given back by each successful call.
+     */
+    public RetryBudget(int maxTokens, double tokenRatio) {
+        if (maxTokens <= 0 || tokenRatio <= 0) {
+            throw new IllegalArgumentException("Invalid retry budget.");
+        }
+        this.maxTokens = maxTokens;
+        this.tokenRatio = tokenRatio;
+        this.tokens = maxTokens;
+    }
+
+    /**
+     * Creates a new retry budget with the default settings.
+     */
+    public RetryBudget() {
+        this(DEFAULT_MAX_TOKENS, DEFAULT_TOKEN_RATIO);
+    }
+
+    /**
+     * Registers a successful call.
+     */
+    public synchronized void onSuccess() {
+        tokens = Math.min(maxTokens, tokens + tokenRatio);
+    }
+
+    /**
+     * Registers a retryable failure.
+     */
+    public synchronized void onFailure() {
+        tokens = Math.max(0, tokens - 1);
+    }
+
+    /**
+     * @return true if a retry is allowed.
+     */
+    public synchronized boolean canRetry() {
+        return tokens > maxTokens / 2;
+    }
+
+    /**
+     * @return The tokens left.
+     */
+    public synchronized double getTokens() {
+        return tokens;
+    }
+}
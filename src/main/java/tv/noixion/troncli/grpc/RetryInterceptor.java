@@ -0,0 +1,239 @@
+package tv.noixion.troncli.grpc;
+
+import io.grpc.*;
+import org.tron.api.GrpcAPI;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interceptor retrying the unary calls to a node, as defined by a {@link RetryPolicy}.
+ * Retries are scheduled on the {@link SharedScheduler}, so no thread sleeps during the backoff.
+ * Each retry must be allowed by the retry budget of the node and the retry budget of the client.
+ * Streaming calls are not retried.
+ */
+public class RetryInterceptor implements ClientInterceptor {
+    private final RetryPolicy policy;
+    private final RetryBudget nodeBudget;
+    private final RetryBudget clientBudget;
+
+    /**
+     * Creates a new interceptor.
+     *
+     * @param policy       The retry policy.
+     * @param nodeBudget   The retry budget of the node.
+     * @param clientBudget The retry budget of the client, shared by all its nodes.
+     */
+    public RetryInterceptor(RetryPolicy policy, RetryBudget nodeBudget, RetryBudget clientBudget) {
+        this.policy = policy;
+        this.nodeBudget = nodeBudget;
+        this.clientBudget = clientBudget;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        if (method.getType() != MethodDescriptor.MethodType.UNARY || policy.getMaxAttempts() <= 1) {
+            return next.newCall(method, callOptions);
+        }
+        return new RetryingCall<>(method, callOptions, next);
+    }
+
+    private boolean isRetryableResponse(Object response) {
+        if (response instanceof GrpcAPI.Return) {
+            GrpcAPI.Return ret = (GrpcAPI.Return) response;
+            return !ret.getResult() && policy.isRetryable(ret.getCode());
+        }
+        if (response instanceof GrpcAPI.TransactionExtention) {
+            GrpcAPI.Return ret = ((GrpcAPI.TransactionExtention) response).getResult();
+            return !ret.getResult() && policy.isRetryable(ret.getCode());
+        }
+        return false;
+    }
+
+    /**
+     * Unary call sent again to the node while the result is retryable.
+     * The request is buffered until the call is half closed, then each attempt is a new call
+     * on the next channel. The response of an attempt is only delivered if it is not retried.
+     */
+    private class RetryingCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+        private final MethodDescriptor<ReqT, RespT> method;
+        private final CallOptions callOptions;
+        private final Channel next;
+        private Listener<RespT> listener;
+        private Metadata headers;
+        private ReqT request;
+        private int requested;
+        private int attempts;
+        private ClientCall<ReqT, RespT> current;
+        private ScheduledFuture<?> scheduled;
+        private boolean cancelled;
+        private boolean closed;
+
+        private RetryingCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+            this.method = method;
+            this.callOptions = callOptions;
+            this.next = next;
+            this.requested = 0;
+            this.attempts = 0;
+            this.cancelled = false;
+            this.closed = false;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            this.listener = responseListener;
+            this.headers = headers;
+        }
+
+        @Override
+        public void request(int numMessages) {
+            ClientCall<ReqT, RespT> call;
+            synchronized (this) {
+                requested += numMessages;
+                call = current;
+            }
+            if (call != null) {
+                call.request(numMessages);
+            }
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+            this.request = message;
+        }
+
+        @Override
+        public void halfClose() {
+            startAttempt();
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+            ClientCall<ReqT, RespT> call;
+            synchronized (this) {
+                if (cancelled || closed) {
+                    return;
+                }
+                cancelled = true;
+                call = current;
+                if (scheduled != null) {
+                    scheduled.cancel(false);
+                    scheduled = null;
+                }
+                if (call == null) {
+                    closed = true;
+                }
+            }
+            if (call != null) {
+                call.cancel(message, cause);
+            } else if (listener != null) {
+                Status status = Status.CANCELLED.withDescription(message).withCause(cause);
+                deliver(() -> listener.onClose(status, new Metadata()));
+            }
+        }
+
+        @Override
+        public synchronized boolean isReady() {
+            return current != null && current.isReady();
+        }
+
+        private void startAttempt() {
+            ClientCall<ReqT, RespT> call;
+            int toRequest;
+            synchronized (this) {
+                if (cancelled || closed) {
+                    return;
+                }
+                attempts++;
+                scheduled = null;
+                call = next.newCall(method, callOptions);
+                current = call;
+                toRequest = requested;
+            }
+            Metadata attemptHeaders = new Metadata();
+            attemptHeaders.merge(headers);
+            call.start(new AttemptListener(), attemptHeaders);
+            if (toRequest > 0) {
+                call.request(toRequest);
+            }
+            call.sendMessage(request);
+            call.halfClose();
+        }
+
+        /**
+         * Decides if an attempt is retried.
+         *
+         * @return true if the retry has been scheduled.
+         */
+        private synchronized boolean scheduleRetry(Status status, boolean retryable) {
+            if (!retryable) {
+                if (status.isOk()) {
+                    nodeBudget.onSuccess();
+                    clientBudget.onSuccess();
+                }
+                return false;
+            }
+            nodeBudget.onFailure();
+            clientBudget.onFailure();
+            if (cancelled || attempts >= policy.getMaxAttempts()
+                    || !nodeBudget.canRetry() || !clientBudget.canRetry()) {
+                return false;
+            }
+            long backoff = policy.getBackoffNanos(attempts);
+            Deadline deadline = callOptions.getDeadline();
+            if (deadline != null && deadline.timeRemaining(TimeUnit.NANOSECONDS) <= backoff) {
+                return false;
+            }
+            current = null;
+            scheduled = SharedScheduler.get().schedule(this::startAttempt, backoff, TimeUnit.NANOSECONDS);
+            return true;
+        }
+
+        private void deliver(Runnable runnable) {
+            Executor executor = callOptions.getExecutor();
+            if (executor != null) {
+                executor.execute(runnable);
+            } else {
+                runnable.run();
+            }
+        }
+
+        /**
+         * Listener of one attempt. It keeps the response until the attempt is closed.
+         */
+        private class AttemptListener extends Listener<RespT> {
+            private Metadata responseHeaders;
+            private RespT response;
+
+            @Override
+            public void onHeaders(Metadata headers) {
+                this.responseHeaders = headers;
+            }
+
+            @Override
+            public void onMessage(RespT message) {
+                this.response = message;
+            }
+
+            @Override
+            public void onClose(Status status, Metadata trailers) {
+                boolean retryable = status.isOk() ? isRetryableResponse(response) : policy.isRetryable(status);
+                if (status.getCode() != Status.Code.CANCELLED && scheduleRetry(status, retryable)) {
+                    return;
+                }
+                synchronized (RetryingCall.this) {
+                    closed = true;
+                }
+                if (responseHeaders != null) {
+                    listener.onHeaders(responseHeaders);
+                }
+                if (response != null) {
+                    listener.onMessage(response);
+                }
+                listener.onClose(status, trailers);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package tv.noixion.troncli.grpc;
+
+import io.grpc.Status;
+import org.tron.api.GrpcAPI.Return.response_code;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Policy for retrying calls to the same node, with exponential backoff and jitter.
+ * A call is retried if it fails with a retryable gRPC status, or if the node answers with a
+ * retryable response code (for example SERVER_BUSY when broadcasting a transaction).
+ */
+public class RetryPolicy {
+    /**
+     * Default policy: up to 4 retries of SERVER_BUSY replies and RESOURCE_EXHAUSTED errors sent by the node,
+     * waiting 100ms, 200ms, 400ms and 800ms (+/- 20%).
+     */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(5, 100, 1000, 2.0, 0.2,
+            EnumSet.of(Status.Code.RESOURCE_EXHAUSTED), EnumSet.of(response_code.SERVER_BUSY));
+
+    /**
+     * Policy without retries.
+     */
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 1.0, 0,
+            EnumSet.noneOf(Status.Code.class), EnumSet.noneOf(response_code.class));
+
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final double multiplier;
+    private final double jitter;
+    private final Set<Status.Code> retryableStatuses;
+    private final Set<response_code> retryableCodes;
+
+    /**
+     * Creates a new retry policy.
+     *
+     * @param maxAttempts       Max number of attempts of a call, including the first one.
+     * @param initialBackoffMs  Time to wait before the first retry (milliseconds).
+     * @param maxBackoffMs      Max time to wait before a retry (milliseconds).
+     * @param multiplier        Factor applied to the backoff after each retry.
+     * @param jitter            Random variation of the backoff (0 - 1), for example 0.2 for +/- 20%.
+     * @param retryableStatuses The gRPC statuses to retry.
+     * @param retryableCodes    The response codes of the node to retry.
+     */
+    public RetryPolicy(int maxAttempts, long initialBackoffMs, long maxBackoffMs, double multiplier, double jitter,
+                       Set<Status.Code> retryableStatuses, Set<response_code> retryableCodes) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is required.");
+        }
+        if (initialBackoffMs < 0 || maxBackoffMs < initialBackoffMs || multiplier < 1) {
+            throw new IllegalArgumentException("Invalid backoff.");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("The jitter must be in [0, 1].");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+        this.retryableStatuses = Collections.unmodifiableSet(retryableStatuses.isEmpty()
+                ? EnumSet.noneOf(Status.Code.class) : EnumSet.copyOf(retryableStatuses));
+        this.retryableCodes = Collections.unmodifiableSet(retryableCodes.isEmpty()
+                ? EnumSet.noneOf(response_code.class) : EnumSet.copyOf(retryableCodes));
+    }
+
+    /**
+     * @return Max number of attempts of a call, including the first one.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return Time to wait before the first retry (milliseconds).
+     */
+    public long getInitialBackoffMs() {
+        return initialBackoffMs;
+    }
+
+    /**
+     * @return Max time to wait before a retry (milliseconds).
+     */
+    public long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+
+    /**
+     * @return Factor applied to the backoff after each retry.
+     */
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * @return Random variation of the backoff (0 - 1).
+     */
+    public double getJitter() {
+        return jitter;
+    }
+
+    /**
+     * @return The gRPC statuses to retry.
+     */
+    public Set<Status.Code> getRetryableStatuses() {
+        return retryableStatuses;
+    }
+
+    /**
+     * @return The response codes of the node to retry.
+     */
+    public Set<response_code> getRetryableCodes() {
+        return retryableCodes;
+    }
+
+    /**
+     * @param status The status of a failed call.
+     * @return true if the call can be retried. A message too large is never retried.
+     */
+    public boolean isRetryable(Status status) {
+        return retryableStatuses.contains(status.getCode()) && !isMessageTooLarge(status);
+    }
+
+    /**
+     * Checks if a call failed because a message is larger than the max message size (generally a reply
+     * larger than the max inbound message size of the client). The same message would fail again.
+     *
+     * @param status The status of a failed call.
+     * @return true if a message was too large.
+     */
+    public static boolean isMessageTooLarge(Status status) {
+        return status.getCode() == Status.Code.RESOURCE_EXHAUSTED && status.getDescription() != null
+                && status.getDescription().contains("exceeds maximum size");
+    }
+
+    /**
+     * @param code The response code of the node.
+     * @return true if the call can be retried.
+     */
+    public boolean isRetryable(response_code code) {
+        return retryableCodes.contains(code);
+    }
+
+    /**
+     * Computes the time to wait before a retry.
+     *
+     * @param retry The retry number, starting at 1.
+     * @return The backoff in nanoseconds.
+     */
+    public long getBackoffNanos(int retry) {
+        double backoff = Math.min(maxBackoffMs, initialBackoffMs * Math.pow(multiplier, retry - 1));
+        if (jitter > 0) {
+            backoff *= 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        }
+        return (long) (backoff * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,36 @@
+package tv.noixion.troncli.grpc;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scheduler shared by all the clients to run timers (hedged calls, retries, health probes).
+ * The scheduled tasks must be short, they only start asynchronous calls.
+ * It uses daemon threads, so it does not prevent the JVM from exiting.
+ */
+public class SharedScheduler {
+    private static final AtomicInteger threadCount = new AtomicInteger(0);
+    private static volatile ScheduledExecutorService scheduler = null;
+
+    private SharedScheduler() {
+    }
+
+    /**
+     * @return The shared scheduler.
+     */
+    public static ScheduledExecutorService get() {
+        if (scheduler == null) {
+            synchronized (SharedScheduler.class) {
+                if (scheduler == null) {
+                    scheduler = Executors.newScheduledThreadPool(1, runnable -> {
+                        Thread thread = new Thread(runnable, "troncli-scheduler-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return scheduler;
+    }
+}
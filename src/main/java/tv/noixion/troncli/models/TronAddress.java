@@ -1,35 +1,41 @@
 package tv.noixion.troncli.models;
 
 import tv.noixion.troncli.utils.TronUtils;
-import org.spongycastle.util.encoders.Hex;
 
 import java.util.Arrays;
 
 /**
  * Represents a org.tron address.
+ * It is an immutable value of 21 bytes (prefix and 20 bytes of address), usable as a hash map key.
  */
-public class TronAddress implements Comparable {
+public final class TronAddress implements Comparable<TronAddress> {
     public static final String HEX_PREFIX = "41";
     public static final int HEX_ADDRESS_LENGTH = 42;
 
-    private byte[] bytes;
+    /**
+     * Length of an address (bytes).
+     */
+    public static final int ADDRESS_LENGTH = HEX_ADDRESS_LENGTH / 2;
+
+    /**
+     * Length of an ABI word (bytes).
+     */
+    public static final int ABI_WORD_LENGTH = 32;
+
+    private static final byte PREFIX = 0x41;
+
+    private final byte[] bytes;
+    private final int hash;
+    private volatile String base58;
 
     /**
      * Creates a new instance of TronAddress.
+     * The leading zeroes are ignored, and the prefix is added if the address has 20 bytes or less.
      *
      * @param bytes The address as an array of bytes.
      */
     public TronAddress(byte[] bytes) {
-        this.bytes = bytes;
-        String hex = removeLeftZeroes(Hex.toHexString(this.bytes));
-        if (hex.length() < HEX_ADDRESS_LENGTH) {
-            while (hex.length() < HEX_ADDRESS_LENGTH - 2) {
-                hex = "0" + hex;
-            }
-            hex = HEX_PREFIX + hex;
-
-        }
-        this.bytes = Hex.decode(hex);
+        this(bytes, 0, bytes.length);
     }
 
     /**
@@ -41,15 +47,51 @@ public class TronAddress implements Comparable {
         this(TronUtils.decodeFromBase58(address));
     }
 
+    private TronAddress(byte[] data, int offset, int length) {
+        int start = offset;
+        int end = offset + length;
+        while (start < end && data[start] == 0) {
+            start++;
+        }
+        int significant = end - start;
+        if (significant < ADDRESS_LENGTH) {
+            this.bytes = new byte[ADDRESS_LENGTH];
+            this.bytes[0] = PREFIX;
+            System.arraycopy(data, start, this.bytes, ADDRESS_LENGTH - significant, significant);
+        } else {
+            this.bytes = Arrays.copyOfRange(data, start, end);
+        }
+        this.hash = Arrays.hashCode(this.bytes);
+    }
+
+    /**
+     * Creates an address from an ABI encoded word (the address in the last 20 bytes).
+     *
+     * @param data   The ABI encoded data.
+     * @param offset The offset of the word in the data.
+     * @return The address.
+     */
+    public static TronAddress fromAbiWord(byte[] data, int offset) {
+        if (offset < 0 || offset + ABI_WORD_LENGTH > data.length) {
+            throw new IllegalArgumentException("Invalid ABI word offset.");
+        }
+        return new TronAddress(data, offset, ABI_WORD_LENGTH);
+    }
+
     /**
      * @return The address as Base-58 string.
      */
     public String toBase58() {
-        return TronUtils.encodeToBase58Check(this.bytes);
+        String result = base58;
+        if (result == null) {
+            result = TronUtils.encodeToBase58Check(this.bytes);
+            base58 = result;
+        }
+        return result;
     }
 
     /**
-     * @return The address as an array of bytes
+     * @return The address as an array of bytes. It is shared with the address, and must not be modified.
      */
     public byte[] getBytes() {
         return this.bytes;
@@ -62,26 +104,36 @@ public class TronAddress implements Comparable {
 
     @Override
     public boolean equals(Object o) {
-        return (o instanceof TronAddress && Arrays.equals(this.bytes, ((TronAddress) o).getBytes()));
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TronAddress)) {
+            return false;
+        }
+        TronAddress other = (TronAddress) o;
+        return hash == other.hash && Arrays.equals(this.bytes, other.bytes);
     }
 
     @Override
-    public int compareTo(Object o) {
-        return this.toString().compareTo(o.toString());
+    public int hashCode() {
+        return hash;
     }
 
-    private String removeLeftZeroes(String input) {
-        String result = "";
-        boolean firstNonZero = false;
-        for (int i = 0; i < input.length(); i++) {
-            char c = input.charAt(i);
-            if (c != '0') {
-                firstNonZero = true;
-            }
-            if (firstNonZero) {
-                result += c;
+    /**
+     * Compares the bytes of the addresses as unsigned numbers. For addresses of the same length it is
+     * the order of their Base-58 strings.
+     */
+    @Override
+    public int compareTo(TronAddress o) {
+        if (this.bytes.length != o.bytes.length) {
+            return Integer.compare(this.bytes.length, o.bytes.length);
+        }
+        for (int i = 0; i < this.bytes.length; i++) {
+            int c = Integer.compare(this.bytes[i] & 0xff, o.bytes[i] & 0xff);
+            if (c != 0) {
+                return c;
             }
         }
-        return result;
+        return 0;
     }
 }
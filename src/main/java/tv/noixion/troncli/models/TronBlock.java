@@ -2,6 +2,7 @@ package tv.noixion.troncli.models;
 
 import com.google.common.primitives.Longs;
 import com.google.gson.JsonObject;
+import com.google.protobuf.ByteString;
 import tv.noixion.troncli.TronClient;
 import org.spongycastle.util.encoders.Hex;
 import org.tron.api.GrpcAPI;
@@ -13,54 +14,32 @@ import java.util.List;
 
 /**
  * Represents a block of the Tron blockchain.
+ * It is a view over the protobuf message: the transactions, the addresses and the byte arrays
+ * are only decoded when they are accessed.
  */
 public class TronBlock {
 
-    private final HashIdentifier id;
+    private final Protocol.BlockHeader header;
+    private final List<Protocol.Transaction> rawTransactions;
+    private final List<GrpcAPI.TransactionExtention> rawTransactionExtentions;
+    private final ByteString rawId;
 
-    private final int version;
-    private final long number;
-    private final HashIdentifier parentHash;
-    private final Date date;
-
-    private final byte[] merkleTreeRoot;
-
-    private final List<TronTransaction> transactions;
-
-    private final long witnessId;
-    private final TronAddress witnessAddress;
-    private final byte[] witnessSignature;
+    private volatile HashIdentifier id;
+    private volatile List<TronTransaction> transactions;
 
     public TronBlock(HashIdentifier id, Protocol.Block block) {
+        this.header = block.getBlockHeader();
+        this.rawTransactions = block.getTransactionsList();
+        this.rawTransactionExtentions = null;
+        this.rawId = null;
         this.id = id;
-        version = block.getBlockHeader().getRawData().getVersion();
-        this.number = block.getBlockHeader().getRawData().getNumber();
-        this.parentHash = new HashIdentifier(block.getBlockHeader().getRawData().getParentHash().toByteArray());
-        this.date = new Date(block.getBlockHeader().getRawData().getTimestamp());
-        this.merkleTreeRoot = block.getBlockHeader().getRawData().getTxTrieRoot().toByteArray();
-        this.transactions = new ArrayList<>();
-        for (Protocol.Transaction tx : block.getTransactionsList()) {
-            transactions.add(new TronTransaction(tx));
-        }
-        this.witnessId = block.getBlockHeader().getRawData().getWitnessId();
-        this.witnessAddress = new TronAddress(block.getBlockHeader().getRawData().getWitnessAddress().toByteArray());
-        this.witnessSignature = block.getBlockHeader().getWitnessSignature().toByteArray();
     }
 
     public TronBlock(GrpcAPI.BlockExtention blockEx) {
-        this.id = new HashIdentifier(blockEx.getBlockid().toByteArray());
-        version = blockEx.getBlockHeader().getRawData().getVersion();
-        this.number = blockEx.getBlockHeader().getRawData().getNumber();
-        this.parentHash = new HashIdentifier(blockEx.getBlockHeader().getRawData().getParentHash().toByteArray());
-        this.date = new Date(blockEx.getBlockHeader().getRawData().getTimestamp());
-        this.merkleTreeRoot = blockEx.getBlockHeader().getRawData().getTxTrieRoot().toByteArray();
-        this.transactions = new ArrayList<>();
-        for (GrpcAPI.TransactionExtention tx : blockEx.getTransactionsList()) {
-            transactions.add(new TronTransaction(tx.getTransaction()));
-        }
-        this.witnessId = blockEx.getBlockHeader().getRawData().getWitnessId();
-        this.witnessAddress = new TronAddress(blockEx.getBlockHeader().getRawData().getWitnessAddress().toByteArray());
-        this.witnessSignature = blockEx.getBlockHeader().getWitnessSignature().toByteArray();
+        this.header = blockEx.getBlockHeader();
+        this.rawTransactions = null;
+        this.rawTransactionExtentions = blockEx.getTransactionsList();
+        this.rawId = blockEx.getBlockid();
     }
 
     private byte[] generateBlockId(long blockNum, byte[] blockHash) {
@@ -74,63 +53,85 @@ public class TronBlock {
      * @return The block version.
      */
     public int getVersion() {
-        return this.version;
+        return header.getRawData().getVersion();
     }
 
     /**
      * @return The block number.
      */
     public long getNumber() {
-        return number;
+        return header.getRawData().getNumber();
     }
 
     /**
      * @return The parent block hash.
      */
     public HashIdentifier getParentHash() {
-        return parentHash;
+        return new HashIdentifier(header.getRawData().getParentHash().toByteArray());
     }
 
     /**
      * @return The date of the block (timestamp).
      */
     public Date getDate() {
-        return date;
+        return new Date(header.getRawData().getTimestamp());
     }
 
     /**
      * @return The root of the merkle tree.
      */
     public byte[] getMerkleTreeRoot() {
-        return merkleTreeRoot;
+        return header.getRawData().getTxTrieRoot().toByteArray();
     }
 
     /**
      * @return The list of transaction in the block.
      */
     public List<TronTransaction> getTransactions() {
-        return transactions;
+        List<TronTransaction> result = transactions;
+        if (result == null) {
+            result = new ArrayList<>(getTransactionCount());
+            if (rawTransactionExtentions != null) {
+                // The identifiers provided by the node avoid hashing each transaction
+                for (GrpcAPI.TransactionExtention tx : rawTransactionExtentions) {
+                    result.add(new TronTransaction(tx));
+                }
+            } else {
+                for (Protocol.Transaction tx : rawTransactions) {
+                    result.add(new TronTransaction(tx));
+                }
+            }
+            transactions = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of transactions in the block, without decoding them.
+     */
+    public int getTransactionCount() {
+        return rawTransactionExtentions != null ? rawTransactionExtentions.size() : rawTransactions.size();
     }
 
     /**
      * @return the witness id.
      */
     public long getWitnessId() {
-        return witnessId;
+        return header.getRawData().getWitnessId();
     }
 
     /**
      * @return The witness address.
      */
     public TronAddress getWitnessAddress() {
-        return witnessAddress;
+        return new TronAddress(header.getRawData().getWitnessAddress().toByteArray());
     }
 
     /**
      * @return the witness signature.
      */
     public byte[] getWitnessSignature() {
-        return witnessSignature;
+        return header.getWitnessSignature().toByteArray();
     }
 
     /**
@@ -179,6 +180,11 @@ public class TronBlock {
     }
 
     public HashIdentifier getId() {
-        return id;
+        HashIdentifier result = id;
+        if (result == null && rawId != null) {
+            result = new HashIdentifier(rawId.toByteArray());
+            id = result;
+        }
+        return result;
     }
 }
@@ -5,15 +5,24 @@ import tv.noixion.troncli.TronClient;
 import tv.noixion.troncli.models.contracts.TriggerSmartContractContract;
 import tv.noixion.troncli.models.contracts.TronContractFactory;
 import org.spongycastle.util.encoders.Hex;
+import org.tron.api.GrpcAPI;
 import org.tron.common.crypto.Sha256Hash;
 import org.tron.protos.Protocol;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a transaction on the Tron network.
+ * It is a view over the protobuf message: the identifier, the contracts and the byte arrays
+ * are only decoded when they are accessed.
+ * When the node provides the identifier of the transaction, it is used instead of hashing the raw data.
+ * A fraction of these identifiers can be verified (see {@link #setTxidVerification(double)}).
  */
 public class TronTransaction {
     /**
@@ -121,119 +130,177 @@ public class TronTransaction {
         }
     }
 
-    private final HashIdentifier id;
-    private final Date date;
-    private final List<TronContract> contracts;
-    private final List<Auth> auths;
-    private final Date expiration;
-    private final TronCurrency feeLimit;
-    private final byte[] refBlockBytes;
-    private final HashIdentifier refBlockHash;
-    private final long refBlockNum;
-    private final List<Result> results;
-    private final List<byte[]> signatures;
+    private static volatile double txidVerificationRate = 0;
+    private static final AtomicLong txidMismatches = new AtomicLong(0);
+
+    private final Protocol.Transaction transaction;
+    private volatile HashIdentifier id;
+    private volatile List<TronContract> contracts;
+    private volatile byte[] refBlockBytes;
+    private volatile HashIdentifier refBlockHash;
 
     public TronTransaction(Protocol.Transaction t) {
-        this.id = new HashIdentifier(Sha256Hash.hash(t.getRawData().toByteArray()));
-        this.date = new Date(t.getRawData().getTimestamp());
-        this.contracts = new ArrayList<>();
-        for (Protocol.Transaction.Contract c : t.getRawData().getContractList()) {
-            this.contracts.add(TronContractFactory.makeContract(c));
+        this.transaction = t;
+    }
+
+    /**
+     * Creates a transaction with the identifier provided by the node.
+     *
+     * @param t    The transaction.
+     * @param txid The transaction identifier, or null to compute it from the raw data.
+     */
+    public TronTransaction(Protocol.Transaction t, HashIdentifier txid) {
+        this.transaction = t;
+        this.id = txid == null ? null : verify(t, txid);
+    }
+
+    /**
+     * Creates a transaction from a transaction extension, with the identifier provided by the node.
+     *
+     * @param tx The transaction extension.
+     */
+    public TronTransaction(GrpcAPI.TransactionExtention tx) {
+        this(tx.getTransaction(), tx.getTxid().isEmpty() ? null : new HashIdentifier(tx.getTxid().toByteArray()));
+    }
+
+    /**
+     * Sets the fraction of the identifiers provided by the nodes that are verified by hashing the raw data.
+     * A wrong identifier is replaced by the computed one and counted.
+     *
+     * @param rate The fraction of identifiers to verify, from 0 (never, by default) to 1 (always).
+     */
+    public static void setTxidVerification(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("The rate must be in [0, 1].");
+        }
+        txidVerificationRate = rate;
+    }
+
+    /**
+     * @return The number of identifiers provided by the nodes that did not match the raw data.
+     */
+    public static long getTxidMismatches() {
+        return txidMismatches.get();
+    }
+
+    private static HashIdentifier verify(Protocol.Transaction t, HashIdentifier txid) {
+        double rate = txidVerificationRate;
+        if (rate <= 0 || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return txid;
         }
-        this.auths = new ArrayList<>();
-        //for (Protocol.authority a : t.getRawData().getAuthsList()) {
-        //    this.auths.add(new Auth(a));
-        //}
-        this.expiration = new Date(t.getRawData().getExpiration());
-        this.feeLimit = TronCurrency.sun(t.getRawData().getFeeLimit());
-        this.refBlockBytes = t.getRawData().getRefBlockBytes().toByteArray();
-        this.refBlockHash = new HashIdentifier(t.getRawData().getRefBlockHash().toByteArray());
-        this.refBlockNum = t.getRawData().getRefBlockNum();
-        this.results = new ArrayList<>();
-        //for (Protocol.Transaction.Result res : t.getRetList()) {
-        //    this.results.add(new Result(res));
-        //}
-        this.signatures = new ArrayList<>();
-        //for (ByteString bs : t.getSignatureList()) {
-        //    this.signatures.add(bs.toByteArray());
-        //}
+        byte[] hash = Sha256Hash.hash(t.getRawData().toByteArray());
+        if (Arrays.equals(hash, txid.getBytes())) {
+            return txid;
+        }
+        txidMismatches.incrementAndGet();
+        return new HashIdentifier(hash);
+    }
+
+    /**
+     * @return The protobuf message of the transaction.
+     */
+    public Protocol.Transaction getProto() {
+        return transaction;
     }
 
     /**
      * @return The transaction identifier.
      */
     public HashIdentifier getId() {
-        return id;
+        HashIdentifier result = id;
+        if (result == null) {
+            result = new HashIdentifier(Sha256Hash.hash(transaction.getRawData().toByteArray()));
+            id = result;
+        }
+        return result;
     }
 
     /**
      * @return The transaction date (timestamp).
      */
     public Date getDate() {
-        return date;
+        return new Date(transaction.getRawData().getTimestamp());
     }
 
     /**
      * @return The list of contracts executed for this transaction.
      */
     public List<TronContract> getContracts() {
-        return contracts;
+        List<TronContract> result = contracts;
+        if (result == null) {
+            result = new ArrayList<>(transaction.getRawData().getContractCount());
+            for (Protocol.Transaction.Contract c : transaction.getRawData().getContractList()) {
+                result.add(TronContractFactory.makeContract(c));
+            }
+            contracts = result;
+        }
+        return result;
     }
 
     /**
      * @return The list of authentications.
      */
     public List<Auth> getAuths() {
-        return auths;
+        return Collections.emptyList();
     }
 
     /**
      * @return The expiration date.
      */
     public Date getExpiration() {
-        return expiration;
+        return new Date(transaction.getRawData().getExpiration());
     }
 
     /**
      * @return the fee limit.
      */
     public TronCurrency getFeeLimit() {
-        return feeLimit;
+        return TronCurrency.sun(transaction.getRawData().getFeeLimit());
     }
 
     /**
      * @return The reference block bytes.
      */
     public byte[] getRefBlockBytes() {
-        return refBlockBytes;
+        byte[] result = refBlockBytes;
+        if (result == null) {
+            result = transaction.getRawData().getRefBlockBytes().toByteArray();
+            refBlockBytes = result;
+        }
+        return result;
     }
 
     /**
      * @return The reference block hash.
      */
     public HashIdentifier getRefBlockHash() {
-        return refBlockHash;
+        HashIdentifier result = refBlockHash;
+        if (result == null) {
+            result = new HashIdentifier(transaction.getRawData().getRefBlockHash().toByteArray());
+            refBlockHash = result;
+        }
+        return result;
     }
 
     /**
      * @return The reference block num.
      */
     public long getRefBlockNum() {
-        return refBlockNum;
+        return transaction.getRawData().getRefBlockNum();
     }
 
     /**
      * @return The list of results.
      */
     public List<Result> getResults() {
-        return results;
+        return Collections.emptyList();
     }
 
     /**
      * @return The list of signatures.
      */
     public List<byte[]> getSignatures() {
-        return signatures;
+        return Collections.emptyList();
     }
 
     /**
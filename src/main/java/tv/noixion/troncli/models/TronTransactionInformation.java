@@ -4,7 +4,7 @@ import com.google.gson.JsonObject;
 import com.google.protobuf.ByteString;
 import tv.noixion.troncli.TronClient;
 import tv.noixion.troncli.exceptions.InvalidCallDataException;
-import tv.noixion.troncli.models.contracts.TriggerSmartContractContract;
+import tv.noixion.troncli.utils.AbiDecoder;
 import tv.noixion.troncli.utils.TronUtils;
 import org.spongycastle.util.encoders.Hex;
 import org.tron.protos.Protocol;
@@ -77,11 +77,10 @@ public class TronTransactionInformation {
          */
         public List<Object> getIndexedFields(List<String> types) throws InvalidCallDataException {
             try {
-                List<Object> values = new ArrayList<>();
+                AbiDecoder decoder = AbiDecoder.compile(types);
+                List<Object> values = new ArrayList<>(topics.size());
                 for (int i = 1; i < topics.size(); i++) {
-                    List<String> oneType = new ArrayList<>();
-                    oneType.add(types.get(i - 1));
-                    values.addAll(TriggerSmartContractContract.unpack(oneType, this.topics.get(i)));
+                    values.add(decoder.decode(i - 1, this.topics.get(i)));
                 }
                 return values;
             } catch (Exception ex) {
@@ -97,7 +96,7 @@ public class TronTransactionInformation {
          * @throws InvalidCallDataException If the data is invalid.
          */
         public List<Object> getNotIndexedFields(List<String> types) throws InvalidCallDataException {
-            return TriggerSmartContractContract.unpack(types, this.data);
+            return AbiDecoder.compile(types).decode(this.data);
         }
 
         public void print(String indent) {
@@ -0,0 +1,353 @@
+package tv.noixion.troncli.utils;
+
+import tv.noixion.troncli.exceptions.InvalidCallDataException;
+import tv.noixion.troncli.models.TronAddress;
+import org.tron.common.crypto.Hash;
+import org.tron.common.utils.AbiUtil;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decoder of ABI encoded values, compiled once from a list of types.
+ * The values are decoded straight from the source data, with offsets.
+ * bool to Boolean
+ * uint, int to BigInteger
+ * address to TronAddress
+ * string to String
+ * bytes, bytesN to byte[]
+ * arrays to List
+ * The compiled decoders are cached by list of types and by method signature.
+ */
+public final class AbiDecoder {
+    private static final int WORD = 32;
+    private static final int SELECTOR_LENGTH = 4;
+    private static final int MAX_CACHED = 4096;
+
+    private static final Map<List<String>, AbiDecoder> byTypes = new ConcurrentHashMap<>();
+    private static final Map<String, AbiDecoder> byMethod = new ConcurrentHashMap<>();
+
+    private final Field[] fields;
+    private final byte[] selector;
+
+    private AbiDecoder(Field[] fields, byte[] selector) {
+        this.fields = fields;
+        this.selector = selector;
+    }
+
+    /**
+     * Gets the decoder of a list of types.
+     *
+     * @param types The list of types.
+     * @return The decoder.
+     * @throws InvalidCallDataException If a type is not supported.
+     */
+    public static AbiDecoder compile(List<String> types) throws InvalidCallDataException {
+        AbiDecoder decoder = byTypes.get(types);
+        if (decoder == null) {
+            List<String> key = Collections.unmodifiableList(new ArrayList<>(types));
+            decoder = new AbiDecoder(compileFields(key), null);
+            cache(byTypes, key, decoder);
+        }
+        return decoder;
+    }
+
+    /**
+     * Gets the decoder of the arguments of a method.
+     *
+     * @param methodSignature The method signature.
+     * @return The decoder.
+     * @throws InvalidCallDataException If a type is not supported.
+     */
+    public static AbiDecoder forMethod(String methodSignature) throws InvalidCallDataException {
+        AbiDecoder decoder = byMethod.get(methodSignature);
+        if (decoder == null) {
+            byte[] selector = Arrays.copyOf(Hash.sha3(methodSignature.getBytes()), SELECTOR_LENGTH);
+            decoder = new AbiDecoder(compileFields(Arrays.asList(AbiUtil.getTypes(methodSignature))), selector);
+            cache(byMethod, methodSignature, decoder);
+        }
+        return decoder;
+    }
+
+    /**
+     * @return The number of values decoded.
+     */
+    public int size() {
+        return fields.length;
+    }
+
+    /**
+     * Checks if call data is a call to the method of the decoder.
+     *
+     * @param callData The call data.
+     * @return true if the call data starts with the selector of the method.
+     */
+    public boolean matchesSelector(byte[] callData) {
+        if (selector == null || callData.length < SELECTOR_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < SELECTOR_LENGTH; i++) {
+            if (callData[i] != selector[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the arguments of call data (after the selector).
+     *
+     * @param callData The call data.
+     * @return The list of values.
+     * @throws InvalidCallDataException If the data is invalid.
+     */
+    public List<Object> decodeCall(byte[] callData) throws InvalidCallDataException {
+        if (!matchesSelector(callData)) {
+            throw new InvalidCallDataException("The method does not match.");
+        }
+        return decode(callData, SELECTOR_LENGTH, callData.length - SELECTOR_LENGTH);
+    }
+
+    /**
+     * Decodes values.
+     *
+     * @param data The data.
+     * @return The list of values.
+     * @throws InvalidCallDataException If the data is invalid.
+     */
+    public List<Object> decode(byte[] data) throws InvalidCallDataException {
+        return decode(data, 0, data.length);
+    }
+
+    /**
+     * Decodes values from the remaining bytes of a buffer. The position of the buffer is not changed.
+     *
+     * @param buffer The buffer.
+     * @return The list of values.
+     * @throws InvalidCallDataException If the data is invalid.
+     */
+    public List<Object> decode(ByteBuffer buffer) throws InvalidCallDataException {
+        if (buffer.hasArray()) {
+            return decode(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        byte[] data = new byte[buffer.remaining()];
+        buffer.duplicate().get(data);
+        return decode(data);
+    }
+
+    /**
+     * Decodes values from a part of an array.
+     *
+     * @param data   The data.
+     * @param offset The offset of the values in the data.
+     * @param length The length of the values.
+     * @return The list of values.
+     * @throws InvalidCallDataException If the data is invalid.
+     */
+    public List<Object> decode(byte[] data, int offset, int length) throws InvalidCallDataException {
+        if (offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IllegalArgumentException("Invalid range.");
+        }
+        List<Object> values = new ArrayList<>(fields.length);
+        for (int i = 0; i < fields.length; i++) {
+            values.add(fields[i].decode(data, offset, offset + length, offset + i * WORD));
+        }
+        return values;
+    }
+
+    /**
+     * Decodes one value encoded alone, as an indexed field of a log.
+     *
+     * @param index The index of the type of the value.
+     * @param data  The data.
+     * @return The value.
+     * @throws InvalidCallDataException If the data is invalid.
+     */
+    public Object decode(int index, byte[] data) throws InvalidCallDataException {
+        if (index < 0 || index >= fields.length) {
+            throw new InvalidCallDataException("No type for value " + index + ".");
+        }
+        return fields[index].decode(data, 0, data.length, 0);
+    }
+
+    private static <K> void cache(Map<K, AbiDecoder> cache, K key, AbiDecoder decoder) {
+        if (cache.size() >= MAX_CACHED) {
+            cache.clear();
+        }
+        cache.put(key, decoder);
+    }
+
+    private static Field[] compileFields(List<String> types) throws InvalidCallDataException {
+        Field[] fields = new Field[types.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = compileField(types.get(i));
+        }
+        return fields;
+    }
+
+    private static Field compileField(String type) throws InvalidCallDataException {
+        switch (type) {
+            case "address":
+                return ADDRESS;
+            case "string":
+                return STRING;
+            case "bool":
+                return BOOL;
+            case "bytes":
+                return BYTES;
+            default:
+                if (hasDigitSuffix(type, "bytes")) {
+                    return FIXED_BYTES;
+                } else if (hasDigitSuffix(type, "int") || hasDigitSuffix(type, "uint")) {
+                    return NUMBER;
+                } else if (type.endsWith("]")) {
+                    int open = type.lastIndexOf('[');
+                    if (open >= 0 && isDigits(type, open + 1, type.length() - 1)) {
+                        return new ArrayField(compileField(type.substring(0, open)));
+                    }
+                }
+                throw new InvalidCallDataException("Unrecognized type: " + type);
+        }
+    }
+
+    private static boolean hasDigitSuffix(String type, String prefix) {
+        return type.startsWith(prefix) && isDigits(type, prefix.length(), type.length());
+    }
+
+    private static boolean isDigits(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkWord(int end, int position) throws InvalidCallDataException {
+        if (position < 0 || position > end - WORD) {
+            throw new InvalidCallDataException("The data is too short.");
+        }
+    }
+
+    /**
+     * Reads a word as an offset or a length.
+     */
+    private static int readInt(byte[] data, int end, int position) throws InvalidCallDataException {
+        checkWord(end, position);
+        for (int i = position; i < position + WORD - 4; i++) {
+            if (data[i] != 0) {
+                throw new InvalidCallDataException("Invalid offset or length.");
+            }
+        }
+        int value = (data[position + WORD - 4] & 0xff) << 24 | (data[position + WORD - 3] & 0xff) << 16
+                | (data[position + WORD - 2] & 0xff) << 8 | (data[position + WORD - 1] & 0xff);
+        if (value < 0 || value > end) {
+            throw new InvalidCallDataException("Invalid offset or length.");
+        }
+        return value;
+    }
+
+    /**
+     * Decoder of one type.
+     */
+    private interface Field {
+        /**
+         * Decodes a value.
+         *
+         * @param data     The data.
+         * @param start    The start of the enclosing list of values (base of the offsets).
+         * @param end      The end of the data.
+         * @param position The position of the word of the value in the head of the list.
+         * @return The value.
+         * @throws InvalidCallDataException If the data is invalid.
+         */
+        Object decode(byte[] data, int start, int end, int position) throws InvalidCallDataException;
+    }
+
+    private static final Field ADDRESS = (data, start, end, position) -> {
+        checkWord(end, position);
+        return TronAddress.fromAbiWord(data, position);
+    };
+
+    private static final Field BOOL = (data, start, end, position) -> {
+        checkWord(end, position);
+        for (int i = position; i < position + WORD; i++) {
+            if (data[i] != 0) {
+                return Boolean.TRUE;
+            }
+        }
+        return Boolean.FALSE;
+    };
+
+    private static final Field NUMBER = (data, start, end, position) -> {
+        checkWord(end, position);
+        int first = position;
+        while (first < position + WORD && data[first] == 0) {
+            first++;
+        }
+        if (position + WORD - first < 8 || (position + WORD - first == 8 && data[first] > 0)) {
+            long value = 0;
+            for (int i = first; i < position + WORD; i++) {
+                value = value << 8 | (data[i] & 0xff);
+            }
+            return BigInteger.valueOf(value);
+        }
+        return new BigInteger(1, Arrays.copyOfRange(data, first, position + WORD));
+    };
+
+    private static final Field FIXED_BYTES = (data, start, end, position) -> {
+        checkWord(end, position);
+        return Arrays.copyOfRange(data, position, position + WORD);
+    };
+
+    private static final Field BYTES = (data, start, end, position) -> {
+        int dynamic = start + readInt(data, end, position);
+        int length = readInt(data, end, dynamic);
+        if (length > end - dynamic - WORD) {
+            throw new InvalidCallDataException("The data is too short.");
+        }
+        return Arrays.copyOfRange(data, dynamic + WORD, dynamic + WORD + length);
+    };
+
+    private static final Field STRING = (data, start, end, position) -> {
+        int dynamic = start + readInt(data, end, position);
+        int length = readInt(data, end, dynamic);
+        if (length > end - dynamic - WORD) {
+            throw new InvalidCallDataException("The data is too short.");
+        }
+        return new String(data, dynamic + WORD, length);
+    };
+
+    /**
+     * Decoder of arrays. As encoded by AbiUtil, every array has an offset in the head and its length
+     * before its elements.
+     */
+    private static final class ArrayField implements Field {
+        private final Field element;
+
+        private ArrayField(Field element) {
+            this.element = element;
+        }
+
+        @Override
+        public Object decode(byte[] data, int start, int end, int position) throws InvalidCallDataException {
+            int dynamic = start + readInt(data, end, position);
+            int length = readInt(data, end, dynamic);
+            if (length > (end - dynamic - WORD) / WORD) {
+                throw new InvalidCallDataException("The data is too short.");
+            }
+            List<Object> values = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                values.add(element.decode(data, dynamic + WORD, end, dynamic + WORD + i * WORD));
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package tv.noixion.troncli.utils;
+
+import org.tron.common.utils.Base58;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Base-58 codec with check code, specialized for addresses.
+ * The 25 bytes of an address with its check code are converted in 32-bit limbs, 5 digits at a time, with
+ * buffers and digests reused by each thread. Other lengths use the generic Base-58 codec.
+ * An optional bounded cache keeps the last addresses and strings converted, in both directions.
+ */
+public final class Base58Check {
+    private static final int CHECK_LENGTH = 4;
+    private static final int ADDRESS_CHECK_LENGTH = TronUtils.ADDRESS_SIZE + CHECK_LENGTH;
+    private static final int LIMBS = 7;
+    private static final int DIGITS = 35;
+    private static final int DIGITS_PER_DIVISION = 5;
+    private static final long DIVISOR = 58L * 58 * 58 * 58 * 58;
+    private static final char[] ALPHABET = Base58.ALPHABET;
+    private static final int[] INDEXES = new int[128];
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private static volatile Entry[] encoded = null;
+    private static volatile Entry[] decoded = null;
+
+    static {
+        Arrays.fill(INDEXES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            INDEXES[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base58Check() {
+    }
+
+    /**
+     * Sets the size of the cache of converted addresses.
+     *
+     * @param size The number of addresses kept (rounded up to a power of two), or 0 to disable the cache.
+     */
+    public static synchronized void setCacheSize(int size) {
+        if (size < 0 || size > 1 << 24) {
+            throw new IllegalArgumentException("Invalid cache size.");
+        }
+        if (size == 0) {
+            encoded = null;
+            decoded = null;
+        } else {
+            int capacity = Integer.highestOneBit(size);
+            if (capacity < size) {
+                capacity <<= 1;
+            }
+            encoded = new Entry[capacity];
+            decoded = new Entry[capacity];
+        }
+    }
+
+    /**
+     * Encodes to base-58 with check code.
+     *
+     * @param input The bytes to encode.
+     * @return The base-58 string.
+     */
+    public static String encode(byte[] input) {
+        Entry[] table = encoded;
+        int slot = 0;
+        if (table != null) {
+            slot = Arrays.hashCode(input) & (table.length - 1);
+            Entry e = table[slot];
+            if (e != null && Arrays.equals(e.bytes, input)) {
+                return e.string;
+            }
+        }
+        String result;
+        Scratch s = SCRATCH.get();
+        if (input.length == TronUtils.ADDRESS_SIZE) {
+            result = encodeAddress(input, s);
+        } else {
+            byte[] check = Arrays.copyOf(input, input.length + CHECK_LENGTH);
+            checksum(input, input.length, s);
+            System.arraycopy(s.hash, 0, check, input.length, CHECK_LENGTH);
+            result = Base58.encode(check);
+        }
+        if (table != null) {
+            store(table, slot, decoded, input.clone(), result);
+        }
+        return result;
+    }
+
+    /**
+     * Decodes a base-58 string with check code.
+     *
+     * @param input The base-58 string.
+     * @return The decoded bytes, or null if the check code does not match.
+     * @throws IllegalArgumentException If the string is not a base-58 string.
+     */
+    public static byte[] decode(String input) {
+        Entry[] table = decoded;
+        int slot = 0;
+        if (table != null) {
+            slot = input.hashCode() & (table.length - 1);
+            Entry e = table[slot];
+            if (e != null && e.string.equals(input)) {
+                return e.bytes.clone();
+            }
+        }
+        Scratch s = SCRATCH.get();
+        byte[] result = decodeAddress(input, s);
+        if (result == null) {
+            byte[] check = Base58.decode(input);
+            if (check.length <= CHECK_LENGTH) {
+                return null;
+            }
+            result = Arrays.copyOf(check, check.length - CHECK_LENGTH);
+            if (!checkMatches(result, check, result.length, s)) {
+                return null;
+            }
+        } else if (result.length == 0) {
+            return null;
+        }
+        if (table != null) {
+            store(encoded, Arrays.hashCode(result), table, result.clone(), input);
+        }
+        return result;
+    }
+
+    private static String encodeAddress(byte[] input, Scratch s) {
+        byte[] buf = s.buf;
+        int pad = buf.length - ADDRESS_CHECK_LENGTH;
+        Arrays.fill(buf, 0, pad, (byte) 0);
+        System.arraycopy(input, 0, buf, pad, input.length);
+        checksum(input, input.length, s);
+        System.arraycopy(s.hash, 0, buf, pad + input.length, CHECK_LENGTH);
+        int[] limbs = s.limbs;
+        for (int i = 0; i < LIMBS; i++) {
+            limbs[i] = (buf[4 * i] & 0xff) << 24 | (buf[4 * i + 1] & 0xff) << 16
+                    | (buf[4 * i + 2] & 0xff) << 8 | (buf[4 * i + 3] & 0xff);
+        }
+        char[] chars = s.chars;
+        int j = DIGITS;
+        while (j > 0) {
+            long remainder = 0;
+            for (int i = 0; i < LIMBS; i++) {
+                long current = remainder << 32 | (limbs[i] & 0xffffffffL);
+                limbs[i] = (int) (current / DIVISOR);
+                remainder = current % DIVISOR;
+            }
+            for (int k = 0; k < DIGITS_PER_DIVISION; k++) {
+                chars[--j] = ALPHABET[(int) (remainder % 58)];
+                remainder /= 58;
+            }
+        }
+        while (j < DIGITS && chars[j] == ALPHABET[0]) {
+            j++;
+        }
+        // One '1' for each leading zero byte
+        for (int i = pad; i < buf.length && buf[i] == 0; i++) {
+            chars[--j] = ALPHABET[0];
+        }
+        return new String(chars, j, DIGITS - j);
+    }
+
+    /**
+     * Decodes an address with its check code.
+     *
+     * @return The address, an empty array if the check code does not match, or null if the string
+     * is not an address without leading zero bytes.
+     */
+    private static byte[] decodeAddress(String input, Scratch s) {
+        int length = input.length();
+        if (length < DIGITS - 2 || length > DIGITS || input.charAt(0) == ALPHABET[0]) {
+            return null;
+        }
+        int[] limbs = s.limbs;
+        Arrays.fill(limbs, 0);
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            int digit = c < INDEXES.length ? INDEXES[c] : -1;
+            if (digit < 0) {
+                throw new IllegalArgumentException("Illegal character " + c + " at " + i);
+            }
+            long carry = digit;
+            for (int k = LIMBS - 1; k >= 0; k--) {
+                long current = (limbs[k] & 0xffffffffL) * 58 + carry;
+                limbs[k] = (int) current;
+                carry = current >>> 32;
+            }
+            if (carry != 0) {
+                return null;
+            }
+        }
+        // The value must have exactly the 25 bytes of an address and its check code
+        if ((limbs[0] & 0xffffff00) != 0 || limbs[0] == 0) {
+            return null;
+        }
+        byte[] buf = s.buf;
+        for (int i = 0; i < LIMBS; i++) {
+            buf[4 * i] = (byte) (limbs[i] >>> 24);
+            buf[4 * i + 1] = (byte) (limbs[i] >>> 16);
+            buf[4 * i + 2] = (byte) (limbs[i] >>> 8);
+            buf[4 * i + 3] = (byte) limbs[i];
+        }
+        int pad = buf.length - ADDRESS_CHECK_LENGTH;
+        byte[] address = Arrays.copyOfRange(buf, pad, pad + TronUtils.ADDRESS_SIZE);
+        if (!checkMatches(address, buf, pad + TronUtils.ADDRESS_SIZE, s)) {
+            return new byte[0];
+        }
+        return address;
+    }
+
+    private static boolean checkMatches(byte[] data, byte[] check, int offset, Scratch s) {
+        checksum(data, data.length, s);
+        for (int i = 0; i < CHECK_LENGTH; i++) {
+            if (s.hash[i] != check[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the double SHA-256 of the data in the hash of the scratch.
+     */
+    private static void checksum(byte[] data, int length, Scratch s) {
+        try {
+            s.sha256.update(data, 0, length);
+            s.sha256.digest(s.hash, 0, s.hash.length);
+            s.sha256.update(s.hash, 0, s.hash.length);
+            s.sha256.digest(s.hash, 0, s.hash.length);
+        } catch (DigestException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void store(Entry[] bytesTable, int bytesHash, Entry[] stringTable, byte[] bytes, String string) {
+        // Entries are immutable, a race only loses an entry
+        Entry e = new Entry(bytes, string);
+        if (bytesTable != null) {
+            bytesTable[bytesHash & (bytesTable.length - 1)] = e;
+        }
+        if (stringTable != null) {
+            stringTable[string.hashCode() & (stringTable.length - 1)] = e;
+        }
+    }
+
+    /**
+     * A cached conversion.
+     */
+    private static final class Entry {
+        private final byte[] bytes;
+        private final String string;
+
+        private Entry(byte[] bytes, String string) {
+            this.bytes = bytes;
+            this.string = string;
+        }
+    }
+
+    /**
+     * Buffers reused by a thread.
+     */
+    private static final class Scratch {
+        private final MessageDigest sha256;
+        private final byte[] hash = new byte[32];
+        private final byte[] buf = new byte[LIMBS * 4];
+        private final int[] limbs = new int[LIMBS];
+        private final char[] chars = new char[DIGITS];
+
+        private Scratch() {
+            try {
+                this.sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
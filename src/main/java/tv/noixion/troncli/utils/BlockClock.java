@@ -0,0 +1,137 @@
+package tv.noixion.troncli.utils;
+
+import tv.noixion.troncli.models.TronBlock;
+
+/**
+ * Predicts when the next block will be available on a node, from the timestamps of the last blocks and
+ * the measured delay between the timestamp of a block and the moment the node serves it.
+ * The delay also absorbs the difference between the local clock and the clock of the network.
+ * It is used to sleep until the next block is expected, then to poll the node often around that moment.
+ */
+public class BlockClock {
+    public static final long DEFAULT_INTERVAL_MS = 3 * 1000;
+    public static final long DEFAULT_MIN_POLL_MS = 100;
+
+    private static final double ALPHA = 0.1;
+    private static final int MAX_BACKOFF_SHIFT = 4;
+
+    private final long minPollMs;
+    private double intervalMs;
+    private double lagMs;
+    private long lastNumber;
+    private long lastTimestamp;
+    private int misses;
+
+    /**
+     * Creates a new clock.
+     *
+     * @param intervalMs The expected interval between blocks (milliseconds).
+     * @param minPollMs  The interval between polls around the moment the next block is expected (milliseconds).
+     */
+    public BlockClock(long intervalMs, long minPollMs) {
+        if (intervalMs <= 0 || minPollMs <= 0) {
+            throw new IllegalArgumentException("Invalid block clock settings.");
+        }
+        this.minPollMs = minPollMs;
+        this.intervalMs = intervalMs;
+        this.lagMs = 0;
+        this.lastNumber = -1;
+        this.lastTimestamp = 0;
+        this.misses = 0;
+    }
+
+    /**
+     * Creates a new clock with the default settings.
+     */
+    public BlockClock() {
+        this(DEFAULT_INTERVAL_MS, DEFAULT_MIN_POLL_MS);
+    }
+
+    /**
+     * Registers a block served by the node.
+     *
+     * @param block The block.
+     */
+    public synchronized void onBlock(TronBlock block) {
+        long number = block.getNumber();
+        long timestamp = block.getDate().getTime();
+        long lag = System.currentTimeMillis() - timestamp;
+        if (lastNumber < 0 || lag < lagMs) {
+            lagMs = lag;
+        } else if (misses > 0) {
+            // Without a miss, the block may have been available long before it was requested
+            lagMs += ALPHA * (lag - lagMs);
+        }
+        if (lastNumber >= 0 && number > lastNumber && timestamp > lastTimestamp) {
+            intervalMs += ALPHA * ((double) (timestamp - lastTimestamp) / (number - lastNumber) - intervalMs);
+        }
+        if (number > lastNumber) {
+            lastNumber = number;
+            lastTimestamp = timestamp;
+        }
+        misses = 0;
+    }
+
+    /**
+     * Registers a poll that did not get the next block.
+     */
+    public synchronized void onMiss() {
+        misses++;
+    }
+
+    /**
+     * @return The time to wait before polling the node for the block after the last one (milliseconds).
+     */
+    public synchronized long getPollDelayMs() {
+        if (lastNumber < 0) {
+            return (long) intervalMs;
+        }
+        long wait = expected(lastNumber + 1) - System.currentTimeMillis() - minPollMs;
+        if (wait > 0) {
+            return wait;
+        }
+        // The block is late: poll often, then back off (missed slot or node behind)
+        return Math.min((long) intervalMs / 2, minPollMs << Math.min(misses, MAX_BACKOFF_SHIFT));
+    }
+
+    /**
+     * @return The time to wait until the next block is expected to be available (milliseconds).
+     */
+    public synchronized long getNextBlockDelayMs() {
+        if (lastNumber < 0) {
+            return (long) intervalMs;
+        }
+        long now = System.currentTimeMillis();
+        long next = expected(lastNumber + 1);
+        if (next <= now) {
+            long periods = (long) ((now - next) / intervalMs) + 1;
+            next = expected(lastNumber + 1 + periods);
+        }
+        return Math.max(minPollMs, next - now);
+    }
+
+    /**
+     * @return true if the clock has registered a block.
+     */
+    public synchronized boolean hasBlocks() {
+        return lastNumber >= 0;
+    }
+
+    /**
+     * @return The estimated interval between blocks (milliseconds).
+     */
+    public synchronized long getIntervalMs() {
+        return (long) intervalMs;
+    }
+
+    /**
+     * @return The estimated delay between the timestamp of a block and the moment the node serves it (milliseconds).
+     */
+    public synchronized long getLagMs() {
+        return (long) lagMs;
+    }
+
+    private long expected(long number) {
+        return lastTimestamp + (long) ((number - lastNumber) * intervalMs + lagMs);
+    }
+}
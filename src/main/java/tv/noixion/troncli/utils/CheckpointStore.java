@@ -0,0 +1,32 @@
+package tv.noixion.troncli.utils;
+
+import java.io.IOException;
+
+/**
+ * Stores the last block fully handled by a block chain watcher, so it can resume after a restart.
+ */
+public interface CheckpointStore {
+    /**
+     * Loads the checkpoint.
+     *
+     * @return The number of the last block fully handled, or -1 if there is no checkpoint.
+     * @throws IOException If the checkpoint could not be read.
+     */
+    public long load() throws IOException;
+
+    /**
+     * Saves the checkpoint. It may be kept in memory for a short time before it is persisted.
+     *
+     * @param blockNumber The number of the last block fully handled.
+     * @throws IOException If the checkpoint could not be written.
+     */
+    public void save(long blockNumber) throws IOException;
+
+    /**
+     * Persists the saved checkpoint and releases the resources of the store.
+     *
+     * @throws IOException If the checkpoint could not be written.
+     */
+    public default void close() throws IOException {
+    }
+}
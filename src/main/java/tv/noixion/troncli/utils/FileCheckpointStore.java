@@ -0,0 +1,184 @@
+package tv.noixion.troncli.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Checkpoint store backed by a local file.
+ * Each checkpoint is appended to the file as an 8 bytes record, and the file is only synced to the disk
+ * every "syncEvery" checkpoints, or when a checkpoint is saved "syncIntervalMs" milliseconds after the
+ * last sync, and when the store is closed. After a crash the watcher may resume a few blocks before the
+ * last handled one, so the handlers must accept blocks they already received.
+ * When the file reaches "maxSize" bytes it is replaced by a file with only the last checkpoint.
+ */
+public class FileCheckpointStore implements CheckpointStore {
+    public static final int DEFAULT_SYNC_EVERY = 100;
+    public static final long DEFAULT_SYNC_INTERVAL_MS = 1000;
+    public static final long DEFAULT_MAX_SIZE = 1024 * 1024;
+
+    private static final int RECORD_SIZE = 8;
+
+    private final Path path;
+    private final int syncEvery;
+    private final long syncIntervalMs;
+    private final long maxSize;
+    private final ByteBuffer buffer;
+    private FileChannel channel;
+    private int unsynced;
+    private long lastSync;
+    private long last;
+    private boolean closed;
+
+    /**
+     * Creates a new checkpoint store.
+     *
+     * @param file           The checkpoint file. It is created if it does not exist.
+     * @param syncEvery      Max number of checkpoints saved before the file is synced.
+     * @param syncIntervalMs Time after the last sync when a new checkpoint syncs the file (milliseconds).
+     * @param maxSize        Size of the file (bytes) before it is compacted.
+     */
+    public FileCheckpointStore(File file, int syncEvery, long syncIntervalMs, long maxSize) {
+        if (syncEvery < 1 || syncIntervalMs < 0 || maxSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("Invalid checkpoint store settings.");
+        }
+        this.path = file.toPath();
+        this.syncEvery = syncEvery;
+        this.syncIntervalMs = syncIntervalMs;
+        this.maxSize = maxSize;
+        this.buffer = ByteBuffer.allocate(RECORD_SIZE);
+        this.channel = null;
+        this.unsynced = 0;
+        this.lastSync = System.currentTimeMillis();
+        this.last = -1;
+        this.closed = false;
+    }
+
+    /**
+     * Creates a new checkpoint store with the default settings.
+     *
+     * @param file The checkpoint file. It is created if it does not exist.
+     */
+    public FileCheckpointStore(File file) {
+        this(file, DEFAULT_SYNC_EVERY, DEFAULT_SYNC_INTERVAL_MS, DEFAULT_MAX_SIZE);
+    }
+
+    @Override
+    public synchronized long load() throws IOException {
+        if (channel == null && !Files.exists(path)) {
+            return last;
+        }
+        FileChannel ch = open();
+        long records = ch.size() / RECORD_SIZE;
+        if (records == 0) {
+            return last;
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        while (record.hasRemaining()) {
+            if (ch.read(record, (records - 1) * RECORD_SIZE + record.position()) < 0) {
+                throw new IOException("Unexpected end of the checkpoint file.");
+            }
+        }
+        record.flip();
+        last = record.getLong();
+        return last;
+    }
+
+    @Override
+    public synchronized void save(long blockNumber) throws IOException {
+        if (closed) {
+            throw new IOException("The checkpoint store is closed.");
+        }
+        try {
+            FileChannel ch = open();
+            if (ch.size() + RECORD_SIZE > maxSize) {
+                compact(blockNumber);
+                return;
+            }
+            buffer.clear();
+            buffer.putLong(blockNumber);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                ch.write(buffer);
+            }
+            last = blockNumber;
+            unsynced++;
+            long now = System.currentTimeMillis();
+            if (unsynced >= syncEvery || now - lastSync >= syncIntervalMs) {
+                sync(now);
+            }
+        } catch (ClosedChannelException ex) {
+            // Closed by an interrupt of the saving thread: reopened by the next save
+            channel = null;
+            throw ex;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (channel != null) {
+            try {
+                if (unsynced > 0) {
+                    sync(System.currentTimeMillis());
+                }
+            } finally {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Opens the file for appending. A partial record left by a crash is removed.
+     */
+    private FileChannel open() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long size = channel.size();
+            channel.truncate(size - size % RECORD_SIZE);
+            channel.position(channel.size());
+        }
+        return channel;
+    }
+
+    private void sync(long now) throws IOException {
+        channel.force(false);
+        unsynced = 0;
+        lastSync = now;
+    }
+
+    /**
+     * Replaces the file with a file with only the given checkpoint.
+     */
+    private void compact(long blockNumber) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(blockNumber);
+        record.flip();
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (record.hasRemaining()) {
+                ch.write(record);
+            }
+            ch.force(false);
+        }
+        channel.close();
+        channel = null;
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        open();
+        last = blockNumber;
+        unsynced = 0;
+        lastSync = System.currentTimeMillis();
+    }
+}
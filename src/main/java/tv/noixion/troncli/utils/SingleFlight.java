@@ -0,0 +1,136 @@
+package tv.noixion.troncli.utils;
+
+import tv.noixion.troncli.exceptions.GRPCException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent requests: while a request for a key is in progress,
+ * other requests for the same key wait for it and share its result instead of making a new call.
+ * Once the request completes, the next request for the key makes a new call (results are not cached).
+ *
+ * @param <K> Type of the request keys.
+ * @param <V> Type of the results.
+ */
+public class SingleFlight<K, V> {
+    /**
+     * A blocking call.
+     *
+     * @param <V> Type of the result.
+     */
+    public interface Call<V> {
+        V call() throws GRPCException;
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight;
+    private final boolean enabled;
+
+    /**
+     * Creates a new single-flight group.
+     *
+     * @param enabled false to make every request call on its own.
+     */
+    public SingleFlight(boolean enabled) {
+        this.inFlight = new ConcurrentHashMap<>();
+        this.enabled = enabled;
+    }
+
+    /**
+     * Creates a new single-flight group.
+     */
+    public SingleFlight() {
+        this(true);
+    }
+
+    /**
+     * Executes a blocking request, or waits for the identical request in progress.
+     *
+     * @param key  The request key.
+     * @param call The call, only made if there is no request in progress for the key.
+     * @return The result.
+     * @throws GRPCException If an error occurs in the GRPC protocol, generally connection problems.
+     */
+    public V execute(K key, Call<V> call) throws GRPCException {
+        if (!enabled) {
+            return call.call();
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            V result = call.call();
+            inFlight.remove(key, future);
+            future.complete(result);
+            return result;
+        } catch (GRPCException | RuntimeException ex) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Submits an asynchronous request, or joins the identical request in progress.
+     * Cancelling the returned future does not cancel the shared request.
+     *
+     * @param key  The request key.
+     * @param call Starts the call, only invoked if there is no request in progress for the key.
+     * @return The result.
+     */
+    public CompletableFuture<V> submit(K key, Supplier<CompletableFuture<V>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing.thenApply(result -> result);
+        }
+        CompletableFuture<V> started;
+        try {
+            started = call.get();
+        } catch (RuntimeException ex) {
+            started = new CompletableFuture<>();
+            started.completeExceptionally(ex);
+        }
+        started.whenComplete((result, error) -> {
+            inFlight.remove(key, future);
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        });
+        return future.thenApply(result -> result);
+    }
+
+    /**
+     * @return The number of requests in progress.
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws GRPCException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GRPCException("Interrupted while waiting for the node.");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof GRPCException) {
+                throw (GRPCException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new GRPCException(cause.getMessage());
+        }
+    }
+}
@@ -70,32 +70,32 @@ private static final String CONTRACT_ABI_JSON = "{\"entrys\":[{\"constant\":true
         if (name != null) {
             return name;
         }
-        name = this.callMethod(this.viewWallet, new TriggerContractDataBuilder(getContract().getMethodsSignature("name")), TronCurrency.ZERO, TronCurrency.ZERO).getResultAsString();
+        name = this.callConstantMethod(this.viewWallet.getAddress(), new TriggerContractDataBuilder(getContract().getMethodsSignature("name"))).getResultAsString();
         return name;
     }
 
 
     public BigInteger totalSupply() throws GRPCException, TransactionException, EncodingException, InvalidCallDataException {
-        return this.callMethod(this.viewWallet, new TriggerContractDataBuilder(getContract().getMethodsSignature("totalSupply")), TronCurrency.ZERO, TronCurrency.ZERO).getResultAsInt();
+        return this.callConstantMethod(this.viewWallet.getAddress(), new TriggerContractDataBuilder(getContract().getMethodsSignature("totalSupply"))).getResultAsInt();
     }
 
 
     public BigInteger decimals() throws GRPCException, TransactionException, EncodingException, InvalidCallDataException {
-        return this.callMethod(this.viewWallet, new TriggerContractDataBuilder(getContract().getMethodsSignature("decimals")), TronCurrency.ZERO, TronCurrency.ZERO).getResultAsInt();
+        return this.callConstantMethod(this.viewWallet.getAddress(), new TriggerContractDataBuilder(getContract().getMethodsSignature("decimals"))).getResultAsInt();
     }
 
     public BigInteger balanceOf(TronAddress who) throws GRPCException, TransactionException, EncodingException, InvalidCallDataException {
-        return this.callMethod(this.viewWallet, new TriggerContractDataBuilder(getContract().getMethodsSignature("balanceOf")).params(who), TronCurrency.ZERO, TronCurrency.ZERO).getResultAsInt();
+        return this.callConstantMethod(this.viewWallet.getAddress(), new TriggerContractDataBuilder(getContract().getMethodsSignature("balanceOf")).params(who)).getResultAsInt();
     }
 
 
     public String symbol() throws GRPCException, TransactionException, EncodingException, InvalidCallDataException {
-        return this.callMethod(this.viewWallet, new TriggerContractDataBuilder(getContract().getMethodsSignature("symbol")), TronCurrency.ZERO, TronCurrency.ZERO).getResultAsString();
+        return this.callConstantMethod(this.viewWallet.getAddress(), new TriggerContractDataBuilder(getContract().getMethodsSignature("symbol"))).getResultAsString();
     }
 
 
     public BigInteger allowance(TronAddress owner, TronAddress spender) throws GRPCException, TransactionException, EncodingException, InvalidCallDataException {
-        return this.callMethod(this.viewWallet, new TriggerContractDataBuilder(getContract().getMethodsSignature("allowance")).params(owner, spender), TronCurrency.ZERO, TronCurrency.ZERO).getResultAsInt();
+        return this.callConstantMethod(this.viewWallet.getAddress(), new TriggerContractDataBuilder(getContract().getMethodsSignature("allowance")).params(owner, spender)).getResultAsInt();
     }
 
 
@@ -24,6 +24,20 @@ public class TransactionUtils {
      */
     public static TronTransaction processTransactionExtention(GrpcClient client, GrpcAPI.TransactionExtention transactionExtention, TronPrivateKey privateKey)
             throws TransactionException {
+        Protocol.Transaction transaction = prepareTransactionExtention(transactionExtention, privateKey);
+        return new TronTransaction(client.broadcastTransaction(transaction));
+    }
+
+    /**
+     * Checks the result of a transaction extension and signs the transaction, without broadcasting it.
+     *
+     * @param transactionExtention The transaction extension.
+     * @param privateKey           The private key to sign the transaction.
+     * @return The signed transaction.
+     * @throws TransactionException If the node rejected the transaction or the transaction is empty.
+     */
+    public static Protocol.Transaction prepareTransactionExtention(GrpcAPI.TransactionExtention transactionExtention, TronPrivateKey privateKey)
+            throws TransactionException {
         if (transactionExtention == null) {
             throw new IllegalArgumentException("The transaction is null.");
         }
@@ -35,8 +49,29 @@ public class TransactionUtils {
         if (transaction == null || transaction.getRawData().getContractCount() == 0) {
             throw new TransactionException(null, "Transaction is empty");
         }
-        transaction = signTransaction(transaction, privateKey);
-        return new TronTransaction(client.broadcastTransaction(transaction));
+        return signTransaction(transaction, privateKey);
+    }
+
+    /**
+     * Copies a transaction extension, setting the fee limit of the transaction.
+     *
+     * @param transactionExtention The transaction extension.
+     * @param feeLimit             The fee limit (SUN).
+     * @return The transaction extension with the fee limit set.
+     */
+    public static GrpcAPI.TransactionExtention setFeeLimit(GrpcAPI.TransactionExtention transactionExtention, long feeLimit) {
+        GrpcAPI.TransactionExtention.Builder texBuilder = GrpcAPI.TransactionExtention.newBuilder();
+        Protocol.Transaction.Builder transBuilder = Protocol.Transaction.newBuilder();
+        Protocol.Transaction.raw.Builder rawBuilder = transactionExtention.getTransaction().getRawData()
+                .toBuilder();
+        rawBuilder.setFeeLimit(feeLimit);
+        transBuilder.setRawData(rawBuilder);
+        transBuilder.addAllSignature(transactionExtention.getTransaction().getSignatureList());
+        transBuilder.addAllRet(transactionExtention.getTransaction().getRetList());
+        texBuilder.setTransaction(transBuilder);
+        texBuilder.setResult(transactionExtention.getResult());
+        texBuilder.setTxid(transactionExtention.getTxid());
+        return texBuilder.build();
     }
 
     /**
@@ -4,7 +4,6 @@ import tv.noixion.troncli.exceptions.InvalidCallDataException;
 import tv.noixion.troncli.models.TronAddress;
 import tv.noixion.troncli.models.TVMTypes;
 import tv.noixion.troncli.models.TronTransaction;
-import tv.noixion.troncli.models.contracts.TriggerSmartContractContract;
 
 import java.math.BigInteger;
 import java.util.List;
@@ -58,7 +57,7 @@ public class TriggerContractResult {
      * @throws InvalidCallDataException If the data or the type are invalid.
      */
     public List<Object> interpretReturnedData(String type) throws InvalidCallDataException {
-        return TriggerSmartContractContract.unpack(TVMTypes.makeListOfTypes(type), this.returnedData);
+        return AbiDecoder.compile(TVMTypes.makeListOfTypes(type)).decode(this.returnedData);
     }
 
     /**
@@ -69,7 +68,7 @@ public class TriggerContractResult {
      * @throws InvalidCallDataException If the data or the type are invalid.
      */
     public List<Object> interpretReturnedData(List<String> types) throws InvalidCallDataException {
-        return TriggerSmartContractContract.unpack(types, this.returnedData);
+        return AbiDecoder.compile(types).decode(this.returnedData);
     }
 
     /**
@@ -25,4 +25,14 @@ public interface TronEventHandler {
      * @param info   The transaction information.
      */
     public void handleTransaction(TronClient client, TronTransaction tx, TronTransactionInformation info);
+
+    /**
+     * Declares the transactions the handler is interested in. The handler only receives these transactions,
+     * and the watcher does not look up the information of the transactions no handler is interested in.
+     *
+     * @return The interest of the handler (all the transactions by default).
+     */
+    public default TronEventInterest getInterest() {
+        return TronEventInterest.ALL;
+    }
 }
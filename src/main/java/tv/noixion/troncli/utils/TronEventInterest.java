@@ -0,0 +1,169 @@
+package tv.noixion.troncli.utils;
+
+import tv.noixion.troncli.models.TronAddress;
+import tv.noixion.troncli.models.TronContract;
+import tv.noixion.troncli.models.TronTransaction;
+import tv.noixion.troncli.models.contracts.TransferAssetContract;
+import tv.noixion.troncli.models.contracts.TransferContract;
+import tv.noixion.troncli.models.contracts.TriggerSmartContractContract;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Declares the transactions an event handler is interested in.
+ * The block chain watcher does not look up the information of the transactions no handler is interested in.
+ * A transaction matches if one of its contracts has one of the contract types (any type if none is set),
+ * and one of the addresses as owner or receiver, or one of the smart contracts as triggered contract
+ * (any address if no address and no smart contract is set).
+ */
+public class TronEventInterest {
+    /**
+     * Interest in all the transactions.
+     */
+    public static final TronEventInterest ALL = builder().build();
+
+    /**
+     * Interest in no transaction, only in the blocks.
+     */
+    public static final TronEventInterest NONE = new TronEventInterest(false, EnumSet.noneOf(TronContract.Type.class),
+            Collections.emptySet(), Collections.emptySet());
+
+    private final boolean transactions;
+    private final Set<TronContract.Type> types;
+    private final Set<TronAddress> addresses;
+    private final Set<TronAddress> contracts;
+
+    private TronEventInterest(boolean transactions, Set<TronContract.Type> types, Set<TronAddress> addresses,
+                              Set<TronAddress> contracts) {
+        this.transactions = transactions;
+        this.types = Collections.unmodifiableSet(types);
+        this.addresses = Collections.unmodifiableSet(addresses);
+        this.contracts = Collections.unmodifiableSet(contracts);
+    }
+
+    /**
+     * @return A builder for a new interest.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return true if the interest matches all the transactions.
+     */
+    public boolean isAll() {
+        return transactions && types.isEmpty() && addresses.isEmpty() && contracts.isEmpty();
+    }
+
+    /**
+     * @return true if the interest matches no transaction.
+     */
+    public boolean isNone() {
+        return !transactions;
+    }
+
+    /**
+     * Checks if a transaction is interesting.
+     *
+     * @param tx The transaction.
+     * @return true if the transaction matches the interest.
+     */
+    public boolean matches(TronTransaction tx) {
+        if (!transactions) {
+            return false;
+        }
+        if (isAll()) {
+            return true;
+        }
+        for (TronContract contract : tx.getContracts()) {
+            if (matches(contract)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(TronContract contract) {
+        if (!types.isEmpty() && !types.contains(contract.getType())) {
+            return false;
+        }
+        if (addresses.isEmpty() && contracts.isEmpty()) {
+            return true;
+        }
+        if (!addresses.isEmpty()) {
+            if (addresses.contains(contract.getOwnerAddress())) {
+                return true;
+            }
+            if (contract instanceof TransferContract
+                    && addresses.contains(((TransferContract) contract).getToAddress())) {
+                return true;
+            }
+            if (contract instanceof TransferAssetContract
+                    && addresses.contains(((TransferAssetContract) contract).getToAddress())) {
+                return true;
+            }
+        }
+        return contract instanceof TriggerSmartContractContract
+                && contracts.contains(((TriggerSmartContractContract) contract).getContractAddress());
+    }
+
+    /**
+     * Builder of interests.
+     */
+    public static class Builder {
+        private final EnumSet<TronContract.Type> types;
+        private final Set<TronAddress> addresses;
+        private final Set<TronAddress> contracts;
+
+        private Builder() {
+            this.types = EnumSet.noneOf(TronContract.Type.class);
+            this.addresses = new HashSet<>();
+            this.contracts = new HashSet<>();
+        }
+
+        /**
+         * Adds contract types.
+         *
+         * @param types The contract types.
+         * @return The builder.
+         */
+        public Builder contractTypes(TronContract.Type... types) {
+            Collections.addAll(this.types, types);
+            return this;
+        }
+
+        /**
+         * Adds addresses, matched with the owner and the receiver of the contracts.
+         *
+         * @param addresses The addresses.
+         * @return The builder.
+         */
+        public Builder addresses(TronAddress... addresses) {
+            Collections.addAll(this.addresses, addresses);
+            return this;
+        }
+
+        /**
+         * Adds smart contracts, matched with the contract address of TriggerSmartContract contracts.
+         * Events emitted by a smart contract called by another one are not matched.
+         *
+         * @param contracts The smart contract addresses.
+         * @return The builder.
+         */
+        public Builder smartContracts(TronAddress... contracts) {
+            Collections.addAll(this.contracts, contracts);
+            return this;
+        }
+
+        /**
+         * @return The interest.
+         */
+        public TronEventInterest build() {
+            return new TronEventInterest(true, EnumSet.copyOf(types), new HashSet<>(addresses),
+                    new HashSet<>(contracts));
+        }
+    }
+}
@@ -5,9 +5,6 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.spongycastle.util.encoders.Hex;
 import org.tron.common.crypto.Hash;
-import org.tron.common.crypto.Sha256Hash;
-import org.tron.common.utils.AbiUtil;
-import org.tron.common.utils.Base58;
 import org.tron.protos.Protocol;
 
 import java.lang.reflect.Array;
@@ -31,7 +28,7 @@ public class TronUtils {
         if (StringUtils.isEmpty(addressBase58)) {
             return null;
         }
-        byte[] address = AbiUtil.decodeFromBase58Check(addressBase58);
+        byte[] address = Base58Check.decode(addressBase58);
         if (!addressValid(address)) {
             return null;
         }
@@ -45,12 +42,7 @@ public class TronUtils {
      * @return The base-58 string.
      */
     public static String encodeToBase58Check(byte[] input) {
-        byte[] hash0 = Sha256Hash.hash(input);
-        byte[] hash1 = Sha256Hash.hash(hash0);
-        byte[] inputCheck = new byte[input.length + 4];
-        System.arraycopy(input, 0, inputCheck, 0, input.length);
-        System.arraycopy(hash1, 0, inputCheck, input.length, 4);
-        return Base58.encode(inputCheck);
+        return Base58Check.encode(input);
     }
 
     /**
@@ -0,0 +1,225 @@
+package tv.noixion.troncli;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.protos.Protocol;
+import tv.noixion.troncli.exceptions.GRPCException;
+import tv.noixion.troncli.models.TronBlock;
+import tv.noixion.troncli.models.TronNode;
+import tv.noixion.troncli.models.TronTransaction;
+import tv.noixion.troncli.models.TronTransactionInformation;
+import tv.noixion.troncli.utils.CheckpointStore;
+import tv.noixion.troncli.utils.FileCheckpointStore;
+import tv.noixion.troncli.utils.TronEventHandler;
+import tv.noixion.troncli.utils.TronEventInterest;
+
+import com.google.protobuf.ByteString;
+import tv.noixion.troncli.models.HashIdentifier;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TronBlockChainWatcherTest {
+    private static final long LAST_BLOCK = 20;
+
+    /**
+     * Client serving the blocks up to LAST_BLOCK, without a node.
+     */
+    private static class LocalClient extends TronClient {
+        private final int transactions;
+        private final AtomicInteger inFlight;
+        private final AtomicInteger maxInFlight;
+        private final TronAsyncClient asyncClient;
+
+        private LocalClient(int transactions) {
+            super(new TronNode("localhost:1"));
+            this.transactions = transactions;
+            this.inFlight = new AtomicInteger(0);
+            this.maxInFlight = new AtomicInteger(0);
+            this.asyncClient = new TronAsyncClient(this) {
+                @Override
+                public CompletableFuture<TronTransactionInformation> getTransactionInformation(HashIdentifier id) {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return CompletableFuture.supplyAsync(() -> {
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException ex) {
+                        }
+                        inFlight.decrementAndGet();
+                        return new TronTransactionInformation(Protocol.TransactionInfo.newBuilder()
+                                .setId(ByteString.copyFrom(id.getBytes()))
+                                .setBlockNumber(1)
+                                .build());
+                    });
+                }
+            };
+        }
+
+        @Override
+        public TronAsyncClient async() {
+            return asyncClient;
+        }
+
+        @Override
+        public TronBlock getBlock(long number) throws GRPCException {
+            if (number > LAST_BLOCK) {
+                throw new GRPCException("Block not found.");
+            }
+            Protocol.BlockHeader.raw raw = Protocol.BlockHeader.raw.newBuilder()
+                    .setNumber(number)
+                    .setTimestamp(System.currentTimeMillis())
+                    .build();
+            Protocol.Block.Builder block = Protocol.Block.newBuilder()
+                    .setBlockHeader(Protocol.BlockHeader.newBuilder().setRawData(raw));
+            for (int i = 0; i < transactions; i++) {
+                block.addTransactions(Protocol.Transaction.newBuilder()
+                        .setRawData(Protocol.Transaction.raw.newBuilder().setTimestamp(number * 1000 + i)));
+            }
+            return new TronBlock(null, block.build());
+        }
+    }
+
+    private static class Handler implements TronEventHandler {
+        private final TronBlockChainWatcher watcher;
+        private final long removeAt;
+        private final CountDownLatch done;
+        private TronEventHandler other;
+        private TronEventInterest interest = TronEventInterest.ALL;
+        private long delay;
+        private volatile int blocks;
+        private volatile int transactions;
+
+        private Handler(TronBlockChainWatcher watcher, long removeAt, CountDownLatch done) {
+            this.watcher = watcher;
+            this.removeAt = removeAt;
+            this.done = done;
+        }
+
+        @Override
+        public void handleBlock(TronClient client, TronBlock block) {
+            blocks++;
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+            if (block.getNumber() == removeAt) {
+                // The other handler is ahead: the checkpoint moves as soon as this one is removed
+                while (other != null && watcher.getHandled(other) < LAST_BLOCK) {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+                watcher.removeHandler(this);
+                done.countDown();
+            }
+            if (block.getNumber() == LAST_BLOCK) {
+                done.countDown();
+            }
+        }
+
+        @Override
+        public void handleTransaction(TronClient client, TronTransaction tx, TronTransactionInformation info) {
+            transactions++;
+        }
+
+        @Override
+        public TronEventInterest getInterest() {
+            return interest;
+        }
+    }
+
+    @Test
+    public void testCheckpointAfterHandlerRemovesItself() throws Exception {
+        File file = File.createTempFile("checkpoint", ".bin");
+        file.delete();
+        TronClient client = new LocalClient(0);
+        try {
+            TronBlockChainWatcher watcher = new TronBlockChainWatcher(client, 1, true);
+            watcher.setCatchUp(0, 1);
+            watcher.setPrefetchDepth(0);
+            watcher.setQueueCapacity(2 * (int) LAST_BLOCK);
+            watcher.setCheckpointStore(new FileCheckpointStore(file, 1, 0, FileCheckpointStore.DEFAULT_MAX_SIZE));
+            CountDownLatch done = new CountDownLatch(1);
+            Handler removed = new Handler(watcher, 3, done);
+            Handler staying = new Handler(watcher, -1, new CountDownLatch(1));
+            removed.other = staying;
+            watcher.addHandler(removed);
+            watcher.addHandler(staying);
+            watcher.startWatching();
+            Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+            watcher.stopWatching();
+            watcher.join(30000);
+
+            CheckpointStore store = new FileCheckpointStore(file);
+            Assert.assertEquals(LAST_BLOCK, store.load());
+            store.close();
+        } finally {
+            client.shutdown();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testLookupsLimitedWithPrefetch() throws Exception {
+        LocalClient client = new LocalClient(10);
+        try {
+            TronBlockChainWatcher watcher = new TronBlockChainWatcher(client, 1);
+            watcher.setCatchUp(0, 1);
+            watcher.setPrefetchDepth(3);
+            watcher.setParallelism(4);
+            CountDownLatch done = new CountDownLatch(1);
+            Handler handler = new Handler(watcher, -1, done);
+            watcher.addHandler(handler);
+            watcher.startWatching();
+            Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+            watcher.stopWatching();
+            watcher.join(30000);
+
+            Assert.assertEquals(10 * LAST_BLOCK, handler.transactions);
+            Assert.assertTrue(client.maxInFlight.get() <= 4);
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    public void testHandlerAddedWhileRunning() throws Exception {
+        LocalClient client = new LocalClient(10);
+        try {
+            TronBlockChainWatcher watcher = new TronBlockChainWatcher(client, 1);
+            watcher.setCatchUp(0, 1);
+            watcher.setPrefetchDepth(3);
+            watcher.setParallelism(4);
+            watcher.setQueueCapacity(1);
+            Handler first = new Handler(watcher, -1, new CountDownLatch(1));
+            first.interest = TronEventInterest.NONE;
+            first.delay = 20;
+            watcher.addHandler(first);
+            watcher.startWatching();
+            while (watcher.getHandled(first) < 5) {
+                Thread.sleep(10);
+            }
+            // The next blocks are already in the resolver, filtered for the first handler
+            CountDownLatch done = new CountDownLatch(1);
+            Handler added = new Handler(watcher, -1, done);
+            watcher.addHandler(added);
+            Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+            watcher.stopWatching();
+            watcher.join(30000);
+
+            Assert.assertTrue(added.blocks > 0);
+            Assert.assertEquals(10 * added.blocks, added.transactions);
+            Assert.assertEquals(0, first.transactions);
+        } finally {
+            client.shutdown();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package tv.noixion.troncli.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import tv.noixion.troncli.exceptions.InvalidCallDataException;
+import tv.noixion.troncli.models.TronAddress;
+import tv.noixion.troncli.models.contracts.TriggerSmartContractContract;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+public class AbiDecoderTest {
+    private static final String SIGNATURE = "f(address,bool,uint256,string,uint256[],string[])";
+
+    @Test
+    public void testDecodeCall() throws Exception {
+        TronAddress address = new TronAddress("TR7NHqjeKQxGTCi8q8ZY4pL8otSzgjLj6t");
+        BigInteger big = BigInteger.ONE.shiftLeft(200).add(BigInteger.TEN);
+        byte[] data = new TriggerContractDataBuilder(SIGNATURE)
+                .paramAddress(address)
+                .paramBool(true)
+                .paramUInt(big)
+                .paramString("hello")
+                .paramArrayUInt(new BigInteger[]{BigInteger.ONE, BigInteger.valueOf(Long.MAX_VALUE)}, true)
+                .paramArrayString(new String[]{"a", "bc"}, true)
+                .build();
+
+        List<Object> values = TriggerSmartContractContract.interpretData(data, SIGNATURE);
+        Assert.assertEquals(6, values.size());
+        Assert.assertEquals(address, values.get(0));
+        Assert.assertEquals(Boolean.TRUE, values.get(1));
+        Assert.assertEquals(big, values.get(2));
+        Assert.assertEquals("hello", values.get(3));
+        Assert.assertEquals(Arrays.asList(BigInteger.ONE, BigInteger.valueOf(Long.MAX_VALUE)), values.get(4));
+        Assert.assertEquals(Arrays.asList("a", "bc"), values.get(5));
+        Assert.assertSame(AbiDecoder.forMethod(SIGNATURE), AbiDecoder.forMethod(SIGNATURE));
+    }
+
+    @Test
+    public void testOtherMethod() throws Exception {
+        byte[] data = new TriggerContractDataBuilder("g(bool)").paramBool(false).build();
+        try {
+            TriggerSmartContractContract.interpretData(data, SIGNATURE);
+            Assert.fail("The method should not match.");
+        } catch (InvalidCallDataException ex) {
+        }
+        Assert.assertEquals(Arrays.asList(Boolean.FALSE), TriggerSmartContractContract.interpretData(data, "g(bool)"));
+    }
+
+    @Test
+    public void testTruncatedData() throws Exception {
+        byte[] data = new TriggerContractDataBuilder("g(string)").paramString("hello").build();
+        try {
+            AbiDecoder.forMethod("g(string)").decodeCall(Arrays.copyOf(data, data.length - 40));
+            Assert.fail("The data should be too short.");
+        } catch (InvalidCallDataException ex) {
+        }
+    }
+
+    @Test
+    public void testUnrecognizedType() {
+        try {
+            AbiDecoder.compile(Arrays.asList("uint256", "fixed128x18"));
+            Assert.fail("The type should not be recognized.");
+        } catch (InvalidCallDataException ex) {
+        }
+    }
+}
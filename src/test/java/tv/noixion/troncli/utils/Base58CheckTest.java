@@ -0,0 +1,66 @@
+package tv.noixion.troncli.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.crypto.Sha256Hash;
+import org.tron.common.utils.Base58;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class Base58CheckTest {
+
+    private static String encodeGeneric(byte[] input) {
+        byte[] hash = Sha256Hash.hash(Sha256Hash.hash(input));
+        byte[] check = Arrays.copyOf(input, input.length + 4);
+        System.arraycopy(hash, 0, check, input.length, 4);
+        return Base58.encode(check);
+    }
+
+    @Test
+    public void testKnownAddress() {
+        byte[] address = Base58Check.decode("TR7NHqjeKQxGTCi8q8ZY4pL8otSzgjLj6t");
+        Assert.assertNotNull(address);
+        Assert.assertEquals(21, address.length);
+        Assert.assertEquals("TR7NHqjeKQxGTCi8q8ZY4pL8otSzgjLj6t", Base58Check.encode(address));
+    }
+
+    @Test
+    public void testSameAsGenericCodec() {
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            byte[] address = new byte[21];
+            random.nextBytes(address);
+            if (i % 3 == 0) {
+                address[0] = TronUtils.PREFIX_BYTE;
+            } else if (i % 3 == 1) {
+                address[0] = 0;
+            }
+            String encoded = encodeGeneric(address);
+            Assert.assertEquals(encoded, Base58Check.encode(address));
+            Assert.assertArrayEquals(address, Base58Check.decode(encoded));
+        }
+        byte[] other = {1, 2, 3};
+        Assert.assertEquals(encodeGeneric(other), Base58Check.encode(other));
+        Assert.assertArrayEquals(other, Base58Check.decode(encodeGeneric(other)));
+    }
+
+    @Test
+    public void testInvalidCheckCode() {
+        Assert.assertNull(Base58Check.decode("TR7NHqjeKQxGTCi8q8ZY4pL8otSzgjLj6u"));
+    }
+
+    @Test
+    public void testCache() {
+        Base58Check.setCacheSize(16);
+        try {
+            byte[] address = Base58Check.decode("TR7NHqjeKQxGTCi8q8ZY4pL8otSzgjLj6t");
+            address[1] ^= 1;
+            Assert.assertEquals("TR7NHqjeKQxGTCi8q8ZY4pL8otSzgjLj6t",
+                    Base58Check.encode(Base58Check.decode("TR7NHqjeKQxGTCi8q8ZY4pL8otSzgjLj6t")));
+            Assert.assertNotEquals("TR7NHqjeKQxGTCi8q8ZY4pL8otSzgjLj6t", Base58Check.encode(address));
+        } finally {
+            Base58Check.setCacheSize(0);
+        }
+    }
+}
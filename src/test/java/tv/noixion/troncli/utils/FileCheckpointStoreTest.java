@@ -0,0 +1,106 @@
+package tv.noixion.troncli.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class FileCheckpointStoreTest {
+
+    @Test
+    public void testNoCheckpoint() throws Exception {
+        File file = File.createTempFile("checkpoint", ".bin");
+        file.delete();
+        try {
+            CheckpointStore store = new FileCheckpointStore(file);
+            Assert.assertEquals(-1, store.load());
+            store.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testResumeFromLastCheckpoint() throws Exception {
+        File file = File.createTempFile("checkpoint", ".bin");
+        try {
+            CheckpointStore store = new FileCheckpointStore(file);
+            store.save(100);
+            store.save(101);
+            store.save(102);
+            store.close();
+
+            store = new FileCheckpointStore(file);
+            Assert.assertEquals(102, store.load());
+            store.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testPartialRecordIgnored() throws Exception {
+        File file = File.createTempFile("checkpoint", ".bin");
+        try {
+            CheckpointStore store = new FileCheckpointStore(file);
+            store.save(7);
+            store.close();
+            try (FileOutputStream out = new FileOutputStream(file, true)) {
+                out.write(new byte[]{1, 2, 3});
+            }
+
+            store = new FileCheckpointStore(file);
+            Assert.assertEquals(7, store.load());
+            store.save(8);
+            store.close();
+            Assert.assertEquals(16, file.length());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        File file = File.createTempFile("checkpoint", ".bin");
+        try {
+            CheckpointStore store = new FileCheckpointStore(file, 1, 0, 32);
+            for (long i = 0; i < 10; i++) {
+                store.save(i);
+            }
+            store.close();
+            Assert.assertTrue(file.length() <= 32);
+
+            store = new FileCheckpointStore(file);
+            Assert.assertEquals(9, store.load());
+            store.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testReopenAfterInterrupt() throws Exception {
+        File file = File.createTempFile("checkpoint", ".bin");
+        try {
+            CheckpointStore store = new FileCheckpointStore(file, 1, 0, FileCheckpointStore.DEFAULT_MAX_SIZE);
+            store.save(1);
+            Thread.currentThread().interrupt();
+            try {
+                store.save(2);
+            } catch (IOException ex) {
+            } finally {
+                Thread.interrupted();
+            }
+            store.save(3);
+            store.close();
+
+            store = new FileCheckpointStore(file);
+            Assert.assertEquals(3, store.load());
+            store.close();
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package tv.noixion.troncli.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import tv.noixion.troncli.exceptions.GRPCException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallsShareResult() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger(0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        String[] results = new String[2];
+
+        Thread first = new Thread(() -> {
+            try {
+                results[0] = flight.execute("key", () -> {
+                    calls.incrementAndGet();
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        throw new GRPCException("Interrupted");
+                    }
+                    return "value";
+                });
+            } catch (GRPCException ex) {
+                Assert.fail(ex.getMessage());
+            }
+        });
+        first.start();
+        started.await();
+
+        CompletableFuture<String> joined = flight.submit("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        Assert.assertFalse(joined.isDone());
+
+        release.countDown();
+        first.join();
+        Assert.assertEquals("value", results[0]);
+        Assert.assertEquals("value", joined.get());
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    public void testCompletedCallIsNotCached() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger(0);
+        Assert.assertEquals(1, (int) flight.execute("key", calls::incrementAndGet));
+        Assert.assertEquals(2, (int) flight.execute("key", calls::incrementAndGet));
+    }
+
+    @Test
+    public void testFailureIsShared() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.submit("key", () -> pending);
+        CompletableFuture<String> second = flight.submit("key", () -> CompletableFuture.completedFuture("other"));
+        pending.completeExceptionally(new GRPCException("Could not fetch block."));
+        Assert.assertTrue(first.isCompletedExceptionally());
+        Assert.assertTrue(second.isCompletedExceptionally());
+        Assert.assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(false);
+        CompletableFuture<String> first = flight.submit("key", CompletableFuture::new);
+        CompletableFuture<String> second = flight.submit("key", () -> CompletableFuture.completedFuture("value"));
+        Assert.assertFalse(first.isDone());
+        Assert.assertEquals("value", second.get());
+    }
+}